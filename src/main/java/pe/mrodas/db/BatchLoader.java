@@ -0,0 +1,195 @@
+package pe.mrodas.db;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent single key lookups into one "IN (...)" query:
+ * <pre>
+ * {@code
+ * static final BatchLoader<Integer, User> USERS = new BatchLoader<>(
+ *      "SELECT * FROM user WHERE id IN (:ids)", "ids", User.class, User::getId);
+ * [...]
+ * User user = USERS.get(id);
+ * }</pre>
+ * Keys requested within {@link #setWindow(long, TimeUnit)} (def: 2 ms) are loaded together; a batch is sent
+ * at once when it reaches {@link #setMaxBatchSize(int)} keys (def: 500). Rows are mapped with the bean mapper
+ * and matched to the requested keys with keyGetter; a key without a row completes with null.
+ */
+public class BatchLoader<K, T> implements AutoCloseable {
+
+    private final String sql, parameter;
+    private final Class<T> type;
+    private final Function<T, K> keyGetter;
+    private final ScheduledExecutorService scheduler;
+    private Executor executor = LoaderExecutor.INSTANCE;
+    private long windowNanos = TimeUnit.MILLISECONDS.toNanos(2);
+    private int maxBatchSize = 500;
+    private Map<K, List<CompletableFuture<T>>> pending = new LinkedHashMap<>();
+    private long batchId;
+    private boolean closed;
+
+    /**
+     * @param sql       query with an "IN (:parameter)" filter
+     * @param parameter name of the IN list parameter. Without ":"
+     * @param type      class of the rows
+     * @param keyGetter key of a row (the value matched by the IN filter)
+     */
+    public BatchLoader(String sql, String parameter, Class<T> type, Function<T, K> keyGetter) {
+        if (sql == null || parameter == null || type == null || keyGetter == null)
+            throw new IllegalArgumentException("Sql, parameter, type and keyGetter can't be null!");
+        this.sql = sql;
+        this.parameter = parameter;
+        this.type = type;
+        this.keyGetter = keyGetter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simple-jdbc-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized BatchLoader<K, T> setWindow(long window, TimeUnit unit) {
+        this.windowNanos = unit.toNanos(window);
+        return this;
+    }
+
+    public synchronized BatchLoader<K, T> setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) throw new IllegalArgumentException("Max batch size must be positive!");
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * @param executor runs the queries (def: a cached pool of daemon threads)
+     */
+    public synchronized BatchLoader<K, T> setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @return future completed with the row of key (null if not found) when its batch is loaded
+     * @throws IllegalStateException if the loader is closed
+     */
+    public CompletableFuture<T> load(K key) {
+        if (key == null) throw new IllegalArgumentException("Key can't be null!");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Map<K, List<CompletableFuture<T>>> batch = null;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("BatchLoader is closed!");
+            boolean first = pending.isEmpty();
+            pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+            if (pending.size() >= maxBatchSize) batch = this.takePending();
+            else if (first) {
+                long id = batchId;
+                scheduler.schedule(() -> this.flush(id), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) this.dispatch(batch);
+        return future;
+    }
+
+    /**
+     * Blocking version of {@link #load(Object)}
+     */
+    public T get(K key) throws IOException, SQLException {
+        try {
+            return this.load(key).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Loader Error: " + cause.getMessage(), cause);
+        }
+    }
+
+    private Map<K, List<CompletableFuture<T>>> takePending() {
+        Map<K, List<CompletableFuture<T>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        batchId++;
+        return batch;
+    }
+
+    /**
+     * Timer of the batch id: ignored if that batch was already sent (max size or close)
+     */
+    private void flush(long id) {
+        Map<K, List<CompletableFuture<T>>> batch;
+        synchronized (this) {
+            if (id != batchId || pending.isEmpty()) return;
+            batch = this.takePending();
+        }
+        this.dispatch(batch);
+    }
+
+    private void dispatch(Map<K, List<CompletableFuture<T>>> batch) {
+        Executor executor;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        try {
+            executor.execute(() -> this.execute(batch));
+        } catch (RuntimeException e) {
+            batch.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    /**
+     * Runs the IN query for keys
+     */
+    protected List<T> query(List<K> keys) throws IOException, SQLException {
+        return new SqlQuery<T>().setSql(sql).addParameter(parameter, keys).executeForList(type);
+    }
+
+    private void execute(Map<K, List<CompletableFuture<T>>> batch) {
+        try {
+            List<T> rows = this.query(new ArrayList<>(batch.keySet()));
+            Map<K, T> byKey = new HashMap<>(rows.size() * 2);
+            for (T row : rows) byKey.put(keyGetter.apply(row), row);
+            batch.forEach((key, futures) -> {
+                T row = byKey.get(key);
+                futures.forEach(future -> future.complete(row));
+            });
+        } catch (Throwable e) {
+            // also Errors (ex: from the mapper): a future left incomplete blocks its callers forever
+            batch.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    /**
+     * Loads the pending keys and stops the timer
+     */
+    @Override
+    public void close() {
+        Map<K, List<CompletableFuture<T>>> batch;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            batch = pending.isEmpty() ? null : this.takePending();
+        }
+        if (batch != null) this.dispatch(batch);
+        scheduler.shutdownNow();
+    }
+
+    private static class LoaderExecutor {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "simple-jdbc-loader-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package pe.mrodas.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import pe.mrodas.db.helper.Autoclose;
+import pe.mrodas.db.helper.GeneratedKeys;
+import pe.mrodas.db.helper.QueryCache;
+import pe.mrodas.db.helper.SqlStatement;
+import pe.mrodas.db.helper.SqlTemplate;
+import pe.mrodas.db.helper.ValueBuffer;
+
+/**
+ * Parameter values of one execution of a {@link CompiledQuery}. Single use, not thread safe.
+ * Values are stored by parameter index, so each name is bound once to all its occurrences.
+ */
+public class BoundQuery<T> extends SqlStatement<T> {
+
+    private final CompiledQuery<T> compiled;
+    private final ValueBuffer values;
+    private String error;
+
+    BoundQuery(CompiledQuery<T> compiled) {
+        super();
+        this.compiled = compiled;
+        this.values = new ValueBuffer(compiled.getTemplate().getNames().size());
+    }
+
+    BoundQuery(CompiledQuery<T> compiled, Connection connection, Autoclose autoclose) {
+        super(connection, autoclose);
+        this.compiled = compiled;
+        this.values = new ValueBuffer(compiled.getTemplate().getNames().size());
+    }
+
+    private int indexOf(String name) {
+        int index = compiled.indexOf(name);
+        if (index < 0 && error == null) error = String.format("Parameter '%s' is not in the query!", name);
+        return index;
+    }
+
+    public BoundQuery<T> set(String name, Object value) {
+        int index = this.indexOf(name);
+        if (index < 0) return this;
+        if (value == null) error = String.format("Parameter '%s' value can't be null!", name);
+        else values.set(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setInt(String name, int value) {
+        int index = this.indexOf(name);
+        if (index >= 0) values.setInt(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setLong(String name, long value) {
+        int index = this.indexOf(name);
+        if (index >= 0) values.setLong(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setDouble(String name, double value) {
+        int index = this.indexOf(name);
+        if (index >= 0) values.setDouble(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setBoolean(String name, boolean value) {
+        int index = this.indexOf(name);
+        if (index >= 0) values.setBoolean(index, value);
+        return this;
+    }
+
+    /**
+     * @param index see {@link CompiledQuery#indexOf(String)}
+     */
+    public BoundQuery<T> setInt(int index, int value) {
+        values.setInt(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setLong(int index, long value) {
+        values.setLong(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setDouble(int index, double value) {
+        values.setDouble(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> setBoolean(int index, boolean value) {
+        values.setBoolean(index, value);
+        return this;
+    }
+
+    public BoundQuery<T> set(int index, Object value) {
+        if (value == null) error = String.format("Parameter '%s' value can't be null!", compiled.getTemplate().getNames().get(index));
+        else values.set(index, value);
+        return this;
+    }
+
+    @Override
+    public BoundQuery<T> setFetchSize(int fetchSize) {
+        super.setFetchSize(fetchSize);
+        return this;
+    }
+
+    @Override
+    protected SQLException buildCallableException(SQLException e) {
+        String msj = String.format("%s Query:(%s)", e.getMessage(), compiled.getTemplate().getSql());
+        return new SQLException(msj, e);
+    }
+
+    @Override
+    protected PreparedStatement executeStatement() throws IOException, SQLException {
+        if (error != null) throw new IOException(error);
+        SqlTemplate template = compiled.getTemplate();
+        for (int i = 0; i < template.getNames().size(); i++)
+            if (!values.isSet(i)) throw new IOException(String.format("Missing parameter '%s'!", template.getNames().get(i)));
+        PreparedStatement statement = super.prepareStatement(template.getJdbcSql(), compiled.getGeneratedKeys());
+        for (int slot = 0; slot < template.getTotalSlots(); slot++)
+            SqlQuery.tryRegisterParameter(statement, slot, template.getParameterNames().get(slot), values, template.getNameIndex(slot));
+        statement.execute();
+        return statement;
+    }
+
+    /**
+     * Same as {@link SqlQuery#execute()}
+     *
+     * @return update count, or the first generated key if the query was compiled with GeneratedKeys.RETURN
+     */
+    public int execute() throws IOException, SQLException {
+        try {
+            PreparedStatement statement = this.executeStatement();
+            if (compiled.getGeneratedKeys() == GeneratedKeys.RETURN) {
+                ResultSet rs = statement.getGeneratedKeys();
+                if (rs.next()) {
+                    int autoGeneratedKey = rs.getInt(1);
+                    if (autoGeneratedKey <= 0) throw new SQLException("Error getting autogenerated key");
+                    return autoGeneratedKey;
+                }
+            }
+            return statement.getUpdateCount();
+        } finally {
+            this.close();
+            QueryCache.invalidateFor(compiled.getTemplate().getSql());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package pe.mrodas.db;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pe.mrodas.db.helper.Autoclose;
+import pe.mrodas.db.helper.GeneratedKeys;
+import pe.mrodas.db.helper.SqlTemplate;
+import pe.mrodas.db.helper.SqlTemplateCache;
+
+/**
+ * Immutable, parsed query. Build it once (ex: at startup) and share it between threads:
+ * <pre>
+ * {@code
+ * static final CompiledQuery<User> BY_ID = SqlQuery.compile("SELECT id, name FROM user WHERE id = :id");
+ * [...]
+ * User user = BY_ID.bind().setInt("id", id).execute(User::new, mapper);
+ * }</pre>
+ * Each {@link #bind()} returns a new single-use {@link BoundQuery}
+ */
+public final class CompiledQuery<T> {
+
+    private final SqlTemplate template;
+    private final GeneratedKeys generatedKeys;
+    private final Map<String, Integer> nameIndexes;
+
+    CompiledQuery(String sql, GeneratedKeys generatedKeys) {
+        if (sql == null || sql.isEmpty()) throw new IllegalArgumentException("Query can't be null or empty!");
+        this.template = SqlTemplateCache.get(sql);
+        this.generatedKeys = generatedKeys == null ? GeneratedKeys.NO_RETURN : generatedKeys;
+        Map<String, Integer> nameIndexes = new HashMap<>();
+        List<String> names = template.getNames();
+        for (int i = 0; i < names.size(); i++) nameIndexes.put(names.get(i), i);
+        this.nameIndexes = Collections.unmodifiableMap(nameIndexes);
+    }
+
+    public BoundQuery<T> bind() {
+        return new BoundQuery<>(this);
+    }
+
+    public BoundQuery<T> bind(Connection connection, Autoclose autoclose) {
+        return new BoundQuery<>(this, connection, autoclose);
+    }
+
+    /**
+     * @param name parameter name. Without ":"
+     * @return index of the parameter (for the BoundQuery setters by index), -1 if it's not in the query
+     */
+    public int indexOf(String name) {
+        Integer index = nameIndexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public SqlTemplate getTemplate() {
+        return template;
+    }
+
+    public GeneratedKeys getGeneratedKeys() {
+        return generatedKeys;
+    }
+}
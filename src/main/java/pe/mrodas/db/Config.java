@@ -6,6 +6,7 @@ import java.util.Properties;
 
 public class Config {
     private Properties properties;
+    private final Properties overrides = new Properties();
     private String propertiesFile, error;
 
     public Config(String[] connectionString) {
@@ -30,6 +31,23 @@ public class Config {
         else this.propertiesFile = propertiesFile;
     }
 
+    /**
+     * Overrides a property of the configuration source. Ex: {@link ConnectionPool#MAX_SIZE}
+     *
+     * @param key   property name
+     * @param value property value
+     * @return the same Config object
+     */
+    public Config setProperty(String key, String value) {
+        if (key != null && value != null) overrides.setProperty(key, value);
+        return this;
+    }
+
+    public Config setPool(int minSize, int maxSize) {
+        return this.setProperty(ConnectionPool.MIN_SIZE, String.valueOf(minSize))
+                .setProperty(ConnectionPool.MAX_SIZE, String.valueOf(maxSize));
+    }
+
     public Properties getProperties() throws IOException {
         if (error != null) throw new IOException(error);
         if (properties == null) {
@@ -43,6 +61,7 @@ public class Config {
                 throw new IOException(String.format("The input stream of '%s' contains a malformed Unicode escape sequence! - ", propertiesFile) + e.getMessage());
             }
         }
+        properties.putAll(overrides);
         return properties;
     }
 }
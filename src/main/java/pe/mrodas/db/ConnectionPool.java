@@ -0,0 +1,239 @@
+package pe.mrodas.db;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Bounded pool of physical connections. Connections are handed out as proxies:
+ * calling {@code close()} returns the physical connection to the pool.
+ * <p>
+ * The idle connections are kept in a lock-free LIFO deque and the pool size is bounded
+ * by a {@link Semaphore}, so borrowing and returning never contend on a global lock.
+ * As a {@link DataSource} it can be shared by both APIs:
+ * {@code DBLayer.Connector.configure(Connector.getDataSource())}</p>
+ * Properties (all optional except {@link #MAX_SIZE}, which enables the pooled mode):
+ * <pre>
+ * {@code
+ * pool.maxSize = 20
+ * pool.minSize = 2
+ * pool.acquireTimeout = 30000      (ms)
+ * pool.idleTimeout = 600000        (ms)
+ * pool.validationInterval = 1000   (ms) idle time before validating on borrow
+ * pool.validationTimeout = 2       (s)
+ * pool.statementCacheSize = 0      prepared statements cached per connection (0: disabled)
+ * }</pre>
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    public static final String MAX_SIZE = "pool.maxSize";
+    public static final String MIN_SIZE = "pool.minSize";
+    public static final String ACQUIRE_TIMEOUT = "pool.acquireTimeout";
+    public static final String IDLE_TIMEOUT = "pool.idleTimeout";
+    public static final String VALIDATION_INTERVAL = "pool.validationInterval";
+    public static final String VALIDATION_TIMEOUT = "pool.validationTimeout";
+    public static final String STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
+
+    private final String url;
+    private final Properties dbInfo;
+    private final int minSize, maxSize, validationTimeout, statementCacheSize;
+    private final long acquireTimeout, idleTimeout, validationInterval;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final LongAdder statementHits = new LongAdder(), statementMisses = new LongAdder();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Properties dbInfo) throws SQLException {
+        this.url = url;
+        this.dbInfo = dbInfo;
+        this.maxSize = ConnectionPool.getInt(dbInfo, MAX_SIZE, 10);
+        this.minSize = Math.min(ConnectionPool.getInt(dbInfo, MIN_SIZE, 0), maxSize);
+        this.acquireTimeout = ConnectionPool.getInt(dbInfo, ACQUIRE_TIMEOUT, 30000);
+        this.idleTimeout = ConnectionPool.getInt(dbInfo, IDLE_TIMEOUT, 600000);
+        this.validationInterval = ConnectionPool.getInt(dbInfo, VALIDATION_INTERVAL, 1000);
+        this.validationTimeout = ConnectionPool.getInt(dbInfo, VALIDATION_TIMEOUT, 2);
+        this.statementCacheSize = ConnectionPool.getInt(dbInfo, STATEMENT_CACHE_SIZE, 0);
+        if (maxSize <= 0) throw new SQLException(String.format("Property '%s' must be greater than 0!", MAX_SIZE));
+        this.permits = new Semaphore(maxSize, true);
+        this.fill();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simple-jdbc-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeout / 2);
+        evictor.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    static boolean isPooled(Properties dbInfo) {
+        return dbInfo.getProperty(MAX_SIZE) != null;
+    }
+
+    private static int getInt(Properties dbInfo, String key, int defaultValue) throws SQLException {
+        String value = dbInfo.getProperty(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new SQLException(String.format("Property '%s' must be an integer! - %s", key, value));
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed!");
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS))
+                throw new SQLException(String.format("Timeout (%s ms) waiting for a pooled connection!", acquireTimeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection!", e);
+        }
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null)
+                if (pooled.isValid(validationInterval, validationTimeout)) return pooled.borrow();
+                else this.discard(pooled);
+            return this.create().borrow();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured user!");
+    }
+
+    private PooledConnection create() throws SQLException {
+        total.incrementAndGet();
+        try {
+            return new PooledConnection(this, DriverManager.getConnection(url, dbInfo), statementCacheSize);
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection pooled) {
+        if (closed || total.get() > maxSize || !pooled.reset()) this.discard(pooled);
+        else idle.offerFirst(pooled);
+        permits.release();
+    }
+
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    private void fill() {
+        while (!closed && total.get() < minSize) try {
+            idle.offerLast(this.create());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
+    }
+
+    private void evict() {
+        long limit = System.currentTimeMillis() - idleTimeout;
+        PooledConnection pooled;
+        while (total.get() > minSize && (pooled = idle.pollLast()) != null) {
+            if (pooled.getLastUsed() < limit) this.discard(pooled);
+            else {
+                idle.offerLast(pooled);
+                break;
+            }
+        }
+        this.fill();
+    }
+
+    void countStatement(boolean hit) {
+        (hit ? statementHits : statementMisses).increment();
+    }
+
+    public long getStatementCacheHits() {
+        return statementHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementHits.sum(), total = hits + statementMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException(String.format("Not a wrapper for '%s'!", iface.getName()));
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) this.discard(pooled);
+    }
+}
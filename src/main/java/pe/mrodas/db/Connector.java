@@ -7,12 +7,25 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
+import javax.sql.DataSource;
+
 public class Connector {
 
     private static Config initConfig;
-    private static Connector connector;
+    private static DataSource initDataSource;
+    private static volatile Connector connector;
     private final Properties dbInfo;
     private final String url;
+    private final ConnectionPool pool;
+    private final DataSource dataSource;
+
+    public Connector(DataSource dataSource) throws IOException {
+        if (dataSource == null) throw new IOException("DataSource can't be null!");
+        this.dbInfo = null;
+        this.url = null;
+        this.pool = null;
+        this.dataSource = dataSource;
+    }
 
     public Connector(Config config) throws IOException {
         this.dbInfo = (config == null ? new Config("db.properties") : config).getProperties();
@@ -27,15 +40,81 @@ public class Connector {
         } catch (Exception e) {
             throw new IOException(String.format("Class '%s' initialization fail!", driver));
         }
+        try {
+            this.pool = ConnectionPool.isPooled(dbInfo) ? new ConnectionPool(url, dbInfo) : null;
+        } catch (SQLException e) {
+            throw new IOException("Connection pool initialization fail! - " + e.getMessage(), e);
+        }
+        this.dataSource = pool;
     }
 
     public Connection getConn() throws SQLException {
-        return DriverManager.getConnection(url, dbInfo);
+        return dataSource == null ? DriverManager.getConnection(url, dbInfo) : dataSource.getConnection();
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    private static Connector getInstance() throws IOException {
+        Connector instance = connector;
+        if (instance == null) synchronized (Connector.class) {
+            if (connector == null)
+                connector = initDataSource == null ? new Connector(initConfig) : new Connector(initDataSource);
+            instance = connector;
+        }
+        return instance;
     }
 
     public static Connection getConnection() throws SQLException, IOException {
-        if (connector == null) connector = new Connector(initConfig);
-        return connector.getConn();
+        return Connector.getInstance().getConn();
+    }
+
+    /**
+     * DataSource used by every statement: the configured one or the library's own pool.
+     *
+     * @return null if the connections are built with DriverManager (not pooled)
+     */
+    public static DataSource getDataSource() throws IOException {
+        return Connector.getInstance().dataSource;
+    }
+
+    /**
+     * Closes the connection pool (if any). The next {@link #getConnection()} builds a new Connector
+     */
+    public static synchronized void shutdown() {
+        if (connector != null && connector.pool != null) connector.pool.close();
+        connector = null;
+    }
+
+    /**
+     * Registers an externally managed DataSource (or a {@link ConnectionPool}).
+     * Every {@link SqlQuery}, {@link SqlInsert}, {@link SqlUpdate}, {@link SqlFunction} and {@link Procedure}
+     * acquires its connections from it. The DataSource is not closed by {@link #shutdown()}
+     *
+     * @param dataSource connection factory
+     */
+    public static void configure(DataSource dataSource) {
+        Connector.shutdown();
+        initDataSource = dataSource;
+    }
+
+    private static void reset() {
+        Connector.shutdown();
+        initDataSource = null;
+    }
+
+    /**
+     * Enables the pooled mode on the current configuration ("db.properties" if none).
+     * See {@link ConnectionPool} for the remaining pool properties.
+     *
+     * @param minSize connections kept open while idle
+     * @param maxSize maximum number of open connections
+     */
+    public static void configurePool(int minSize, int maxSize) {
+        Connector.reset();
+        if (initConfig == null) initConfig = new Config("db.properties");
+        initConfig.setPool(minSize, maxSize);
     }
 
     /**
@@ -46,13 +125,16 @@ public class Connector {
      *      "url = jdbc:mysql://127.0.0.1:3306/dbName",
      *      "driver = com.mysql.jdbc.Driver",
      *      "user = userName",
-     *      "password = pass"
+     *      "password = pass",
+     *      "pool.maxSize = 20"
      * });
      * }</pre>
+     * The "pool.*" properties are optional, see {@link ConnectionPool}
      *
      * @param connectionString Propiedad: "key = value"
      */
     public static void configure(String[] connectionString) {
+        Connector.reset();
         initConfig = new Config(connectionString);
     }
 
@@ -66,6 +148,7 @@ public class Connector {
      * @param connectionString Propiedad: "key = value"
      */
     public static void configure(String connectionString) {
+        Connector.reset();
         initConfig = new Config(connectionString == null ? null : connectionString.split(";"));
     }
 
@@ -83,6 +166,7 @@ public class Connector {
      * @param properties input properties
      */
     public static void configure(Properties properties) {
+        Connector.reset();
         initConfig = new Config(properties);
     }
 
@@ -102,6 +186,7 @@ public class Connector {
      *                     "db.properties"
      */
     public static void configure(File propertyFile) {
+        Connector.reset();
         initConfig = new Config(propertyFile == null ? null : propertyFile.getName());
     }
 }
\ No newline at end of file
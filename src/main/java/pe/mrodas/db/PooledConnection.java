@@ -0,0 +1,295 @@
+package pe.mrodas.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Physical connection owned by a {@link ConnectionPool}. Each borrow hands out a new proxy (lease),
+ * so a closed lease can't touch the physical connection once it's back in the pool.
+ * <p>
+ * If the pool has a statement cache, {@code prepareStatement(sql)}, {@code prepareStatement(sql, autoGeneratedKeys)}
+ * and {@code prepareCall(sql)} reuse the statements of previous leases (LRU, bounded by count).
+ * A cached statement is owned by one lease at a time and goes back to the cache when it (or the lease) is closed.</p>
+ * Statements are handed out wrapped: their {@code getConnection()} returns the lease, not the physical connection.
+ * Read only, transaction isolation and catalog changed during a lease are restored when it's released.
+ */
+class PooledConnection {
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final List<LeasedStatement> leased = new ArrayList<>();
+    private final Map<StatementKey, PreparedStatement> statementCache;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private boolean stateChanged, defaultReadOnly;
+    private int defaultIsolation;
+    private String defaultCatalog;
+
+    PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCacheSize <= 0 ? null
+                : new LinkedHashMap<StatementKey, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                if (size() <= statementCacheSize) return false;
+                PooledConnection.close(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    boolean isValid(long validationInterval, int validationTimeout) {
+        if (System.currentTimeMillis() - lastUsed < validationInterval) return true;
+        try {
+            return physical.isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    Connection borrow() {
+        Lease lease = new Lease();
+        lease.connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, lease);
+        return lease.connection;
+    }
+
+    /**
+     * Closes the statements left open during the lease and restores the default connection state.
+     *
+     * @return false if the connection can't be reused
+     */
+    boolean reset() {
+        lastUsed = System.currentTimeMillis();
+        this.closeStatements();
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (stateChanged) {
+                if (physical.isReadOnly() != defaultReadOnly) physical.setReadOnly(defaultReadOnly);
+                if (physical.getTransactionIsolation() != defaultIsolation) physical.setTransactionIsolation(defaultIsolation);
+                if (defaultCatalog != null && !defaultCatalog.equals(physical.getCatalog())) physical.setCatalog(defaultCatalog);
+            }
+            physical.clearWarnings();
+            return !physical.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void close(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Captures the default state of the connection before a lease changes it for the first time
+     */
+    private void saveState() throws SQLException {
+        if (stateChanged) return;
+        defaultReadOnly = physical.isReadOnly();
+        defaultIsolation = physical.getTransactionIsolation();
+        defaultCatalog = physical.getCatalog();
+        stateChanged = true;
+    }
+
+    private void closeStatements() {
+        for (LeasedStatement statement : new ArrayList<>(leased)) statement.release();
+        leased.clear();
+    }
+
+    /**
+     * Puts a cached statement back in the cache (closes it if it can't be reused)
+     */
+    private void giveBack(StatementKey key, PreparedStatement statement) {
+        try {
+            if (statement.isClosed()) return;
+            statement.clearParameters();
+            statement.clearBatch();
+            PreparedStatement displaced = statementCache.put(key, statement);
+            if (displaced != null && displaced != statement) PooledConnection.close(displaced);
+        } catch (SQLException e) {
+            PooledConnection.close(statement);
+        }
+    }
+
+    void closePhysical() {
+        this.closeStatements();
+        if (statementCache != null) {
+            statementCache.values().forEach(PooledConnection::close);
+            statementCache.clear();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return the statement wrapped for the lease, from the cache if it's cacheable
+     */
+    private Statement open(Lease lease, Method method, Object[] args) throws Throwable {
+        StatementKey key = statementCache == null ? null : StatementKey.of(method, args);
+        Statement statement = key == null ? null : statementCache.remove(key);
+        if (key != null) pool.countStatement(statement != null && !statement.isClosed());
+        if (statement == null || statement.isClosed())
+            statement = (Statement) PooledConnection.invoke(physical, method, args);
+        LeasedStatement handler = new LeasedStatement(lease, key, statement);
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        leased.add(handler);
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class StatementKey {
+
+        private final String sql;
+        private final int mode;
+
+        private StatementKey(String sql, int mode) {
+            this.sql = sql;
+            this.mode = mode;
+        }
+
+        /**
+         * @return null if the method isn't cacheable
+         */
+        static StatementKey of(Method method, Object[] args) {
+            if (args == null || !(args[0] instanceof String)) return null;
+            String name = method.getName();
+            if (name.equals("prepareCall") && args.length == 1) return new StatementKey((String) args[0], -1);
+            if (!name.equals("prepareStatement")) return null;
+            if (args.length == 1) return new StatementKey((String) args[0], Statement.NO_GENERATED_KEYS);
+            if (args.length == 2 && args[1] instanceof Integer) return new StatementKey((String) args[0], (Integer) args[1]);
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof StatementKey)) return false;
+            StatementKey key = (StatementKey) obj;
+            return mode == key.mode && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + mode;
+        }
+    }
+
+    private class Lease implements InvocationHandler {
+
+        private Connection connection;
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+            }
+            if (closed) throw new SQLException("Connection is closed!");
+            if (Statement.class.isAssignableFrom(method.getReturnType()))
+                return PooledConnection.this.open(this, method, args);
+            switch (method.getName()) {
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                    PooledConnection.this.saveState();
+            }
+            return PooledConnection.invoke(physical, method, args);
+        }
+    }
+
+    /**
+     * Statement handed out by a lease: close() gives a cached statement back to the cache
+     * and getConnection() returns the lease
+     */
+    private class LeasedStatement implements InvocationHandler {
+
+        private final Lease lease;
+        private final StatementKey key;
+        private final Statement statement;
+        private boolean closed;
+
+        private LeasedStatement(Lease lease, StatementKey key, Statement statement) {
+            this.lease = lease;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        private void release() {
+            if (closed) return;
+            closed = true;
+            leased.remove(this);
+            if (key == null) PooledConnection.close(statement);
+            else PooledConnection.this.giveBack(key, (PreparedStatement) statement);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    this.release();
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(statement)) return statement;
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(statement)) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + statement;
+            }
+            if (closed) throw new SQLException("Statement is closed!");
+            if (method.getName().equals("getConnection")) return lease.connection;
+            return PooledConnection.invoke(statement, method, args);
+        }
+    }
+}
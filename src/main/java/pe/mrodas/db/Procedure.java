@@ -1,25 +1,23 @@
 package pe.mrodas.db;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.JDBCType;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Time;
-import java.sql.Timestamp;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import pe.mrodas.db.helper.Autoclose;
+import pe.mrodas.db.helper.MultipleResults;
+import pe.mrodas.db.helper.ParameterBinders;
 import pe.mrodas.db.helper.SqlStatement;
+import pe.mrodas.db.helper.ThrowingConsumer;
 
 public class Procedure<T> extends SqlStatement<T> {
 
@@ -89,7 +87,7 @@ public class Procedure<T> extends SqlStatement<T> {
         try {
             if (sqlType == null)
                 if (value == null) statement.setNull(name, parametersInNull.get(name).getVendorTypeNumber());
-                else this.registerParameter(statement, name, value);
+                else ParameterBinders.bind(statement, name, value);
             else statement.registerOutParameter(name, sqlType);
         } catch (SQLException e) {
             String typeParam = sqlType == null ? (value == null ? "NULL IN" : "IN") : "OUT";
@@ -98,29 +96,32 @@ public class Procedure<T> extends SqlStatement<T> {
         }
     }
 
-    private void registerParameter(CallableStatement statement, String name, Object value) throws SQLException {
-        Class<?> objClass = value.getClass();
-        if (objClass.isArray()) {
-            Class<?> componentType = value.getClass().getComponentType();
-            if (componentType != null && componentType.isPrimitive())
-                if (byte.class.isAssignableFrom(componentType))
-                    statement.setBytes(name, (byte[]) value);
-        } else if (objClass == Integer.class) statement.setInt(name, (Integer) value);
-        else if (objClass == String.class) statement.setString(name, (String) value);
-        else if (objClass == Boolean.class) statement.setBoolean(name, (Boolean) value);
-        else if (objClass == Double.class) statement.setDouble(name, (Double) value);
-        else if (objClass == Float.class) statement.setFloat(name, (Float) value);
-        else if (value instanceof InputStream) statement.setBlob(name, (InputStream) value);
-        else if (objClass == Date.class) {
-            long time = ((Date) value).getTime();
-            statement.setTimestamp(name, new Timestamp(time));
-        } else if (objClass == Time.class) statement.setTime(name, (Time) value);
-        else if (objClass == Timestamp.class) statement.setTimestamp(name, (Timestamp) value);
-        else if (objClass == LocalDate.class)
-            statement.setDate(name, java.sql.Date.valueOf((LocalDate) value));
-        else if (objClass == LocalTime.class) statement.setTime(name, Time.valueOf((LocalTime) value));
-        else if (objClass == LocalDateTime.class)
-            statement.setTimestamp(name, Timestamp.valueOf((LocalDateTime) value));
+    /**
+     * Executes the procedure in one round trip and reads its result sets in order, then its OUT parameters.
+     * Each result set is read by its handler and closed before the next one is fetched.
+     *
+     * @param outReader reads the OUT parameters once every result set was read (nullable)
+     * @param handlers  handler of each result set, in order. Extra result sets are skipped
+     * @return number of result sets returned by the procedure
+     */
+    @SafeVarargs
+    public final int executeMultiple(ThrowingConsumer<CallableStatement> outReader, ThrowingConsumer<ResultSet>... handlers) throws IOException, SQLException {
+        try {
+            CallableStatement statement = (CallableStatement) this.executeStatement();
+            List<ThrowingConsumer<ResultSet>> handlerList = new ArrayList<>(handlers.length);
+            for (ThrowingConsumer<ResultSet> handler : handlers) handlerList.add(handler);
+            int total = MultipleResults.consume(statement, handlerList);
+            if (outReader != null) outReader.accept(statement);
+            return total;
+        } catch (SQLException e) {
+            throw this.buildCallableException(e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Mapping Error: " + e.getMessage(), e);
+        } finally {
+            super.close();
+        }
     }
 
     public void execute() throws IOException, SQLException {
@@ -5,16 +5,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import pe.mrodas.db.helper.CursorIterator;
 import pe.mrodas.db.helper.ThrowingBiFunction;
+import pe.mrodas.db.helper.ValueBuffer;
 
 public class SqlFunction<T> {
     private final static String QUERY = "SELECT <function>(<parameters>) value";
-    private final List<Object> parameters = new ArrayList<>();
+    private final ValueBuffer parameters = new ValueBuffer();
     private final String name;
     private String error;
 
@@ -30,6 +30,26 @@ public class SqlFunction<T> {
         return this;
     }
 
+    public SqlFunction<T> addInt(int parameter) {
+        if (error == null) parameters.addInt(parameter);
+        return this;
+    }
+
+    public SqlFunction<T> addLong(long parameter) {
+        if (error == null) parameters.addLong(parameter);
+        return this;
+    }
+
+    public SqlFunction<T> addDouble(double parameter) {
+        if (error == null) parameters.addDouble(parameter);
+        return this;
+    }
+
+    public SqlFunction<T> addBoolean(boolean parameter) {
+        if (error == null) parameters.addBoolean(parameter);
+        return this;
+    }
+
     public T execute(ThrowingBiFunction<ResultSet, String, T> mapper) throws IOException, SQLException {
         return this.execute(null, mapper);
     }
@@ -42,18 +62,20 @@ public class SqlFunction<T> {
         String preparedQuery = QUERY.replace("<function>", name)
                 .replace("<parameters>", String.join(", ", params));
         Connection conn = connection == null ? Connector.getConnection() : connection;
-        PreparedStatement statement = conn.prepareStatement(preparedQuery);
-        for (Integer pos : new CursorIterator(numParameters)) {
-            String name = String.format("#%s", pos);
-            Object value = parameters.get(pos);
-            SqlQuery.tryRegisterParameter(statement, pos, name, value);
-        }
-        statement.execute();
-        ResultSet rs = statement.getResultSet();
-        if (rs.next()) try {
-            return mapper.apply(rs, "value");
-        } catch (Exception e) {
-            throw new IOException("Mapping Error: " + e.getMessage(), e);
+        try {
+            PreparedStatement statement = conn.prepareStatement(preparedQuery);
+            for (Integer pos : new CursorIterator(numParameters)) {
+                String name = String.format("#%s", pos);
+                SqlQuery.tryRegisterParameter(statement, pos, name, parameters, pos);
+            }
+            statement.execute();
+            ResultSet rs = statement.getResultSet();
+            if (rs.next()) try {
+                return mapper.apply(rs, "value");
+            } catch (Exception e) {
+                throw new IOException("Mapping Error: " + e.getMessage(), e);
+            }
+            return null;
         } finally {
             try {
                 conn.close();
@@ -61,6 +83,5 @@ public class SqlFunction<T> {
                 e.printStackTrace();
             }
         }
-        return null;
     }
 }
@@ -7,21 +7,46 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import pe.mrodas.db.helper.CursorIterator;
-import pe.mrodas.db.helper.TableIterator;
+import pe.mrodas.db.helper.PrefetchIterator;
+import pe.mrodas.db.helper.QueryCache;
+import pe.mrodas.db.helper.UncheckedSQLException;
+import pe.mrodas.db.helper.ValueBuffer;
 
 public class SqlInsert {
 
+    /**
+     * Asigna los valores de un elemento de la fuente a la fila ({@link #executeStream(Stream, RowBinder)})
+     */
+    public interface RowBinder<T> {
+
+        void bind(T item, Row row) throws Exception;
+    }
+
     private final static String QUERY = "INSERT INTO <table> (<fields>) VALUES (<values>)";
-    private final Map<String, List<Object>> valueListMap = new HashMap<>();
+    private final static int MULTI_ROW_CACHE_SIZE = 256;
+    private final static int STREAM_BATCH_SIZE = 1000;
+    private final static Map<String, String> MULTI_ROW_QUERIES = new ConcurrentHashMap<>();
+    private final Map<String, ValueBuffer> valueListMap = new LinkedHashMap<>();
     private final String table;
     private final Consumer<Integer> setterId;
+    private String[] columnNames;
+    private ValueBuffer[] columns;
+    private Row row;
+    private int rowsPerStatement;
+    private int maxPlaceholders = 65535;
+    private int batchSize;
+    private int prefetch;
 
     public SqlInsert(String table) {
         this(table, null);
@@ -34,11 +59,141 @@ public class SqlInsert {
 
     public SqlInsert addField(String name, Object value) {
         if (name == null || value == null) return this;
-        if (!valueListMap.containsKey(name)) valueListMap.put(name, new ArrayList<>());
-        valueListMap.get(name).add(value);
+        this.getValues(name).add(value);
+        return this;
+    }
+
+    public SqlInsert addInt(String name, int value) {
+        if (name != null) this.getValues(name).addInt(value);
+        return this;
+    }
+
+    public SqlInsert addLong(String name, long value) {
+        if (name != null) this.getValues(name).addLong(value);
+        return this;
+    }
+
+    public SqlInsert addDouble(String name, double value) {
+        if (name != null) this.getValues(name).addDouble(value);
+        return this;
+    }
+
+    public SqlInsert addBoolean(String name, boolean value) {
+        if (name != null) this.getValues(name).addBoolean(value);
+        return this;
+    }
+
+    /**
+     * Define las columnas (y su orden) de {@link #addRow(Object...)} y {@link #beginRow()}.
+     * Cada columna guarda sus valores en un arreglo tipado (int, long, double y boolean sin boxing)
+     *
+     * @param names nombres de las columnas
+     * @return El mismo objeto SqlInsert
+     */
+    public SqlInsert columns(String... names) {
+        if (names == null || names.length == 0) throw new IllegalArgumentException("Columns can't be empty");
+        if (!valueListMap.isEmpty()) throw new IllegalStateException("Columns must be defined before adding values");
+        ValueBuffer[] columns = new ValueBuffer[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == null || valueListMap.containsKey(names[i]))
+                throw new IllegalArgumentException(String.format("Column '%s' is null or repeated", names[i]));
+            columns[i] = this.getValues(names[i]);
+        }
+        this.columnNames = names.clone();
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * @return posición de la columna en {@link #columns(String...)}, -1 si no existe
+     */
+    public int indexOf(String name) {
+        if (columnNames != null) for (int i = 0; i < columnNames.length; i++) if (columnNames[i].equals(name)) return i;
+        return -1;
+    }
+
+    /**
+     * Agrega una fila, un valor por columna en el orden de {@link #columns(String...)}. null se inserta como NULL
+     *
+     * @return El mismo objeto SqlInsert
+     */
+    public SqlInsert addRow(Object... values) {
+        ValueBuffer[] columns = this.getColumns();
+        if (values == null || values.length != columns.length) {
+            String error = String.format("Row must have %s values, not %s", columns.length, values == null ? 0 : values.length);
+            throw new IllegalArgumentException(error);
+        }
+        int index = columns[0].size();
+        for (int i = 0; i < columns.length; i++) columns[i].setUnboxed(index, values[i]);
+        return this;
+    }
+
+    /**
+     * Inicia una fila. Se completa con {@link Row#endRow()}; el objeto Row se reutiliza entre filas:
+     * <pre><code>
+     * for (Item item : items) insert.beginRow().setInt(0, item.getId()).set(1, item.getName()).endRow();
+     * </code></pre>
+     */
+    public Row beginRow() {
+        ValueBuffer[] columns = this.getColumns();
+        if (row == null) row = new Row();
+        if (row.open) throw new IllegalStateException("Previous row was not ended");
+        row.index = columns[0].size();
+        row.open = true;
+        return row;
+    }
+
+    private ValueBuffer[] getColumns() {
+        if (columns == null) throw new IllegalStateException("Columns are not defined");
+        return columns;
+    }
+
+    /**
+     * Inserta varias filas por sentencia ({@code INSERT ... VALUES (...), (...), ...}) en lugar de
+     * un batch de una sentencia por fila (un viaje al servidor por fila si el driver no reescribe batches)
+     *
+     * @param rowsPerStatement Máximo de filas por sentencia (0: batch JDBC). Se reduce para no superar
+     *                         {@link #setMaxPlaceholders(int)}
+     * @return El mismo objeto SqlInsert
+     */
+    public SqlInsert setRowsPerStatement(int rowsPerStatement) {
+        this.rowsPerStatement = rowsPerStatement;
+        return this;
+    }
+
+    /**
+     * @param maxPlaceholders Máximo de parámetros "?" por sentencia (def: 65535, límite de MySQL y PostgreSQL)
+     * @return El mismo objeto SqlInsert
+     */
+    public SqlInsert setMaxPlaceholders(int maxPlaceholders) {
+        this.maxPlaceholders = maxPlaceholders;
         return this;
     }
 
+    /**
+     * @param batchSize Filas por executeBatch (0: todas en un solo batch). Limita la memoria del batch en el driver
+     * @return El mismo objeto SqlInsert
+     */
+    public SqlInsert setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param prefetch Filas leídas por adelantado en otro hilo en {@link #executeStream(Stream, RowBinder)}
+     *                 (0: la fuente se lee en el hilo que inserta). La lectura espera mientras haya prefetch
+     *                 filas pendientes de insertar
+     * @return El mismo objeto SqlInsert
+     */
+    public SqlInsert setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    private ValueBuffer getValues(String name) {
+        return valueListMap.computeIfAbsent(name, key -> new ValueBuffer());
+    }
+
     private int checkNumRows(List<String> fieldNames) throws IOException {
         List<Integer> rows = new ArrayList<>(1);
         for (String name : fieldNames) {
@@ -59,72 +214,300 @@ public class SqlInsert {
                 .replace("<values>", String.join(", ", values));
     }
 
-    private PreparedStatement getPreparedStatement(Connection conn, String preparedQuery) throws SQLException, IOException {
-        return this.setterId == null
+    /**
+     * @return query inserting rows rows. Cached by table, fields and rows
+     */
+    private String getMultiRowQuery(List<String> fieldNames, int rows) {
+        String fields = String.join(", ", fieldNames);
+        String key = table + '\u0000' + fields + '\u0000' + rows;
+        String query = MULTI_ROW_QUERIES.get(key);
+        if (query != null) return query;
+        String row = "(" + String.join(", ", Collections.nCopies(fieldNames.size(), "?")) + ")";
+        query = "INSERT INTO " + table + " (" + fields + ") VALUES " + String.join(", ", Collections.nCopies(rows, row));
+        if (MULTI_ROW_QUERIES.size() >= MULTI_ROW_CACHE_SIZE) MULTI_ROW_QUERIES.clear();
+        MULTI_ROW_QUERIES.put(key, query);
+        return query;
+    }
+
+    private PreparedStatement getPreparedStatement(Connection conn, String preparedQuery, boolean returnKeys) throws SQLException, IOException {
+        return !returnKeys
                 ? conn.prepareStatement(preparedQuery)
                 : conn.prepareStatement(preparedQuery, Statement.RETURN_GENERATED_KEYS);
     }
 
-    private void tryRegisterParameter(PreparedStatement statement, String name, TableIterator tableIterator) throws SQLException {
-        int row = tableIterator.getPosRow();
-        int col = tableIterator.getPosCol();
-        Object value = valueListMap.get(name).get(row);
-        try {
-            SqlQuery.registerParameter(statement, col + 1, value);
-        } catch (Exception e) {
-            String error = String.format("Error setting '%s' parameter (row=%s) in statement! - ", name, row) + e.getMessage();
-            throw new SQLException(error, e);
-        }
+    public void executeStatement(PreparedStatement statement, List<String> fieldNames, int totalRows) throws IOException, SQLException {
+        this.executeStatement(statement, fieldNames, this.getBuffers(fieldNames), totalRows, null);
     }
 
-    public void executeStatement(PreparedStatement statement, List<String> fieldNames, int totalRows) throws IOException, SQLException {
-        int totalCols = fieldNames.size();
+    /**
+     * @return buffers aligned to fieldNames, resolved once per execution
+     */
+    private ValueBuffer[] getBuffers(List<String> fieldNames) {
+        ValueBuffer[] buffers = new ValueBuffer[fieldNames.size()];
+        for (int i = 0; i < buffers.length; i++) buffers[i] = valueListMap.get(fieldNames.get(i));
+        return buffers;
+    }
+
+    /**
+     * One row: execute. More rows: batch, executed every {@link #setBatchSize(int)} rows
+     *
+     * @param keys generated keys of each row (nullable)
+     * @return total update count
+     */
+    private int executeStatement(PreparedStatement statement, List<String> fieldNames, ValueBuffer[] buffers, int totalRows, long[] keys) throws SQLException {
+        int totalCols = buffers.length;
         if (totalRows == 1) {
-            for (Integer col : new CursorIterator(totalCols)) {
-                String name = fieldNames.get(col);
-                Object value = valueListMap.get(name).get(0);
-                SqlQuery.tryRegisterParameter(statement, col, name, value);
-            }
+            for (Integer col : new CursorIterator(totalCols))
+                SqlQuery.tryRegisterParameter(statement, col, fieldNames.get(col), buffers[col], 0);
             statement.execute();
-            return;
+            if (keys != null) SqlInsert.readKeys(statement, keys, 0, 1);
+            return statement.getUpdateCount();
         }
-        TableIterator tableIterator = new TableIterator(totalRows, totalCols);
-        for (Integer row : tableIterator.getRowIterator()) {
-            for (Integer col : tableIterator.getColIterator()) {
-                String name = fieldNames.get(col);
-                this.tryRegisterParameter(statement, name, tableIterator);
+        int batchSize = this.batchSize > 0 ? this.batchSize : totalRows;
+        int updateCount = 0;
+        for (int from = 0; from < totalRows; from += batchSize) {
+            int rows = Math.min(batchSize, totalRows - from);
+            for (int row = from; row < from + rows; row++) {
+                for (int col = 0; col < totalCols; col++) SqlInsert.tryRegisterParameter(statement, buffers[col], fieldNames, col, col + 1, row);
+                statement.addBatch();
             }
-            statement.addBatch();
+            for (int count : statement.executeBatch()) updateCount += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            if (keys != null) SqlInsert.readKeys(statement, keys, from, rows);
+            statement.clearBatch();
         }
-        statement.executeBatch();
+        return updateCount;
     }
 
-    public int execute() throws IOException, SQLException {
-        return this.execute(null);
+    /**
+     * Full chunks reuse the same statement (and query text); only the last chunk may have fewer rows
+     *
+     * @param keys generated keys of each row (nullable)
+     * @return total update count
+     */
+    private int executeMultiRow(Connection conn, List<String> fieldNames, ValueBuffer[] buffers, int totalRows, long[] keys) throws IOException, SQLException {
+        int rowsPerStatement = Math.max(1, Math.min(this.rowsPerStatement, maxPlaceholders / buffers.length));
+        PreparedStatement full = null;
+        int updateCount = 0;
+        try {
+            for (int from = 0; from < totalRows; from += rowsPerStatement) {
+                int rows = Math.min(rowsPerStatement, totalRows - from);
+                if (rows < rowsPerStatement)
+                    try (PreparedStatement tail = this.getPreparedStatement(conn, this.getMultiRowQuery(fieldNames, rows), keys != null)) {
+                        updateCount += SqlInsert.executeRows(tail, fieldNames, buffers, from, rows, keys);
+                    }
+                else {
+                    if (full == null) full = this.getPreparedStatement(conn, this.getMultiRowQuery(fieldNames, rows), keys != null);
+                    updateCount += SqlInsert.executeRows(full, fieldNames, buffers, from, rows, keys);
+                }
+            }
+        } finally {
+            if (full != null) full.close();
+        }
+        return updateCount;
     }
 
-    public int execute(Connection connection) throws IOException, SQLException {
+    private static int executeRows(PreparedStatement statement, List<String> fieldNames, ValueBuffer[] buffers, int from, int rows, long[] keys) throws SQLException {
+        int pos = 0;
+        for (int row = from; row < from + rows; row++)
+            for (int col = 0; col < buffers.length; col++) SqlInsert.tryRegisterParameter(statement, buffers[col], fieldNames, col, ++pos, row);
+        int updateCount = statement.executeUpdate();
+        if (keys != null) SqlInsert.readKeys(statement, keys, from, rows);
+        return updateCount;
+    }
+
+    private static void readKeys(PreparedStatement statement, long[] keys, int from, int rows) throws SQLException {
+        try (ResultSet rs = statement.getGeneratedKeys()) {
+            for (int i = from; i < from + rows && rs.next(); i++) keys[i] = rs.getLong(1);
+        }
+    }
+
+    /**
+     * @throws SQLException if the key doesn't fit in the Integer of setterId (use executeForKeys)
+     */
+    private static int toIntKey(long key) throws SQLException {
+        if (key > Integer.MAX_VALUE) throw new SQLException(String.format("Autogenerated key %s exceeds Integer range, use executeForKeys()!", key));
+        return (int) key;
+    }
+
+    private static void tryRegisterParameter(PreparedStatement statement, ValueBuffer buffer, List<String> fieldNames, int col, int pos, int row) throws SQLException {
+        try {
+            buffer.bind(statement, pos, row);
+        } catch (Exception e) {
+            String error = String.format("Error setting '%s' parameter (row=%s) in statement! - ", fieldNames.get(col), row) + e.getMessage();
+            throw new SQLException(error, e);
+        }
+    }
+
+    /**
+     * @param keys generated keys of each row (nullable)
+     * @return total update count
+     */
+    private int execute(Connection connection, long[] keys) throws IOException, SQLException {
         if (table == null) throw new IOException("Table name can't be null!");
         if (valueListMap.isEmpty()) throw new IOException("Fields can't be empty!");
         List<String> fieldNames = new ArrayList<>(valueListMap.keySet());
         int totalRows = this.checkNumRows(fieldNames);
+        if (keys != null && keys.length != totalRows) throw new IOException("Keys array must have one element per row!");
+        if (row != null && row.open) throw new IOException("Last row was not ended!");
+        ValueBuffer[] buffers = this.getBuffers(fieldNames);
         Connection conn = connection == null ? Connector.getConnection() : connection;
-        String preparedQuery = this.getPreparedQuery(fieldNames);
-        PreparedStatement statement = this.getPreparedStatement(conn, preparedQuery);
-        this.executeStatement(statement, fieldNames, totalRows);
+        try {
+            if (this.rowsPerStatement > 1 && totalRows > 1) return this.executeMultiRow(conn, fieldNames, buffers, totalRows, keys);
+            String preparedQuery = this.getPreparedQuery(fieldNames);
+            PreparedStatement statement = this.getPreparedStatement(conn, preparedQuery, keys != null);
+            return this.executeStatement(statement, fieldNames, buffers, totalRows, keys);
+        } finally {
+            this.close(conn);
+            QueryCache.invalidate(table);
+        }
+    }
+
+    private int getTotalRows() {
+        return valueListMap.isEmpty() ? 0 : valueListMap.values().iterator().next().size();
+    }
+
+    public int execute() throws IOException, SQLException {
+        return this.execute((Connection) null);
+    }
+
+    /**
+     * @return Primer ID autogenerado si se brindó setterId, si no la suma de los update counts
+     */
+    public int execute(Connection connection) throws IOException, SQLException {
+        if (this.setterId == null) return this.execute(connection, null);
+        long[] keys = this.executeForKeys(connection);
+        return SqlInsert.toIntKey(keys[0]);
+    }
+
+    public long[] executeForKeys() throws IOException, SQLException {
+        return this.executeForKeys(null);
+    }
+
+    /**
+     * Inserta las filas y devuelve los IDs autogenerados, en el orden de las filas
+     * (0 si el driver no devolvió un ID para la fila). setterId recibe el primero
+     *
+     * @return ID autogenerado de cada fila
+     */
+    public long[] executeForKeys(Connection connection) throws IOException, SQLException {
+        long[] keys = new long[this.getTotalRows()];
+        this.execute(connection, keys);
         if (this.setterId != null) {
-            ResultSet rs = statement.getGeneratedKeys();
-            if (rs.next()) {
-                int autoGeneratedKey = rs.getInt(1);
-                this.close(conn);
-                if (autoGeneratedKey <= 0) throw new SQLException("Error getting autogenerated key");
-                this.setterId.accept(autoGeneratedKey);
-                return autoGeneratedKey;
+            if (keys.length == 0 || keys[0] <= 0) throw new SQLException("Error getting autogenerated key");
+            this.setterId.accept(SqlInsert.toIntKey(keys[0]));
+        }
+        return keys;
+    }
+
+    public <T> long executeStream(Stream<T> source, RowBinder<? super T> binder) throws IOException, SQLException {
+        return this.executeStream(null, source, binder);
+    }
+
+    /**
+     * Inserta los elementos de source (leídos a medida que se insertan, sin cargarlos en memoria) en una sola
+     * transacción, con un batch que se ejecuta cada {@link #setBatchSize(int)} filas (def: 1000).
+     * Cada elemento se asigna a una fila de las columnas de {@link #columns(String...)} con binder.
+     * Si hay algún error realiza un rollback. source se cierra al terminar
+     *
+     * @return Suma de los update counts
+     */
+    public <T> long executeStream(Connection connection, Stream<T> source, RowBinder<? super T> binder) throws IOException, SQLException {
+        return this.executeStream(connection, source.iterator(), source::close, binder);
+    }
+
+    public <T> long executeStream(Iterator<T> source, RowBinder<? super T> binder) throws IOException, SQLException {
+        return this.executeStream(null, source, null, binder);
+    }
+
+    public <T> long executeStream(Connection connection, Iterator<T> source, RowBinder<? super T> binder) throws IOException, SQLException {
+        return this.executeStream(connection, source, null, binder);
+    }
+
+    /**
+     * @param onDone closes the source (nullable)
+     */
+    private <T> long executeStream(Connection connection, Iterator<T> source, Runnable onDone, RowBinder<? super T> binder) throws IOException, SQLException {
+        try {
+            if (table == null) throw new IOException("Table name can't be null!");
+            if (columns == null) throw new IOException("Columns can't be empty! (columns(...))");
+            if (valueListMap.size() != columns.length || columns[0].size() > 0)
+                throw new IOException("Values were already added, use execute()!");
+        } catch (IOException e) {
+            if (onDone != null) onDone.run();
+            throw e;
+        }
+        Iterator<T> rows = prefetch > 0 ? new PrefetchIterator<>(source, prefetch, onDone) : source;
+        Connection conn = connection == null ? Connector.getConnection() : connection;
+        try {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                long updateCount = this.insertRows(conn, rows, binder);
+                conn.commit();
+                return updateCount;
+            } catch (SQLException e) {
+                SqlInsert.rollback(conn, e);
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } finally {
+            if (rows instanceof PrefetchIterator) ((PrefetchIterator<T>) rows).close();
+            else if (onDone != null) onDone.run();
+            for (ValueBuffer column : columns) column.clear();
+            if (row != null) row.open = false;
+            this.close(conn);
+            QueryCache.invalidate(table);
+        }
+    }
+
+    /**
+     * The buffers keep only the current row: it is bound and added to the batch before reading the next one
+     */
+    private <T> long insertRows(Connection conn, Iterator<T> rows, RowBinder<? super T> binder) throws SQLException {
+        List<String> fieldNames = Arrays.asList(columnNames);
+        int batchSize = this.batchSize > 0 ? this.batchSize : STREAM_BATCH_SIZE;
+        PreparedStatement statement = conn.prepareStatement(this.getPreparedQuery(fieldNames));
+        long updateCount = 0, total = 0;
+        int batched = 0;
+        try {
+            while (rows.hasNext()) {
+                T item = rows.next();
+                for (ValueBuffer column : columns) column.clear();
+                binder.bind(item, this.beginRow());
+                row.endRow();
+                for (int col = 0; col < columns.length; col++)
+                    SqlInsert.tryRegisterParameter(statement, columns[col], fieldNames, col, col + 1, 0);
+                statement.addBatch();
+                total++;
+                if (++batched < batchSize) continue;
+                updateCount += SqlInsert.executeBatch(statement);
+                batched = 0;
             }
+            if (batched > 0) updateCount += SqlInsert.executeBatch(statement);
+            return updateCount;
+        } catch (SQLException e) {
+            throw new SQLException(String.format("Stream Error (rows read: %s): %s", total, e.getMessage()), e);
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        } catch (Exception e) {
+            throw new SQLException(String.format("Error binding row #%s: %s", total, e.getMessage()), e);
+        }
+    }
+
+    private static long executeBatch(PreparedStatement statement) throws SQLException {
+        long updateCount = 0;
+        for (int count : statement.executeBatch()) updateCount += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        statement.clearBatch();
+        return updateCount;
+    }
+
+    private static void rollback(Connection conn, SQLException e) {
+        try {
+            conn.rollback();
+        } catch (SQLException rollbackError) {
+            e.addSuppressed(rollbackError);
         }
-        int rowCount = statement.getUpdateCount();
-        this.close(conn);
-        return rowCount;
     }
 
     private void close(Connection conn) {
@@ -135,4 +518,72 @@ public class SqlInsert {
         }
     }
 
+    /**
+     * Fila en construcción de {@link #beginRow()}. Las columnas se indican por posición (o por nombre,
+     * resuelto con {@link #indexOf(String)})
+     */
+    public class Row {
+
+        private int index;
+        private boolean open;
+
+        private Row() {
+        }
+
+        private ValueBuffer column(int col) {
+            if (!open) throw new IllegalStateException("Row is not open, call beginRow()");
+            return columns[col];
+        }
+
+        private int column(String name) {
+            int col = SqlInsert.this.indexOf(name);
+            if (col < 0) throw new IllegalArgumentException(String.format("Column '%s' not found", name));
+            return col;
+        }
+
+        /**
+         * null se inserta como NULL
+         */
+        public Row set(int col, Object value) {
+            this.column(col).setUnboxed(index, value);
+            return this;
+        }
+
+        public Row set(String name, Object value) {
+            return this.set(this.column(name), value);
+        }
+
+        public Row setInt(int col, int value) {
+            this.column(col).setInt(index, value);
+            return this;
+        }
+
+        public Row setLong(int col, long value) {
+            this.column(col).setLong(index, value);
+            return this;
+        }
+
+        public Row setDouble(int col, double value) {
+            this.column(col).setDouble(index, value);
+            return this;
+        }
+
+        public Row setBoolean(int col, boolean value) {
+            this.column(col).setBoolean(index, value);
+            return this;
+        }
+
+        /**
+         * @return El objeto SqlInsert
+         * @throws IllegalStateException si alguna columna no tiene valor
+         */
+        public SqlInsert endRow() {
+            if (!open) throw new IllegalStateException("Row is not open, call beginRow()");
+            for (int i = 0; i < columns.length; i++)
+                if (!columns[i].isSet(index))
+                    throw new IllegalStateException(String.format("Column '%s' is not set (row=%s)", columnNames[i], index));
+            open = false;
+            return SqlInsert.this;
+        }
+    }
 }
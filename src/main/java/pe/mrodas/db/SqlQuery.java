@@ -1,37 +1,63 @@
 package pe.mrodas.db;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Time;
-import java.sql.Timestamp;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
 
 import pe.mrodas.db.helper.Autoclose;
 import pe.mrodas.db.helper.CursorIterator;
+import pe.mrodas.db.helper.Dialect;
 import pe.mrodas.db.helper.GeneratedKeys;
 import pe.mrodas.db.helper.InOperator;
+import pe.mrodas.db.helper.ParameterBinders;
+import pe.mrodas.db.helper.QueryCache;
 import pe.mrodas.db.helper.SqlStatement;
+import pe.mrodas.db.helper.SqlTemplate;
+import pe.mrodas.db.helper.SqlTemplateCache;
+import pe.mrodas.db.helper.ThrowingBiConsumer;
+import pe.mrodas.db.helper.ThrowingBiFunction;
+import pe.mrodas.db.helper.ThrowingFunction;
+import pe.mrodas.db.helper.ValueBuffer;
 
 public class SqlQuery<T> extends SqlStatement<T> {
 
+    private final static int DEFAULT_CHUNK_PARALLELISM = 4;
     private GeneratedKeys generatedKeys;
-    private String query, originalQuery;
-    private List<String> parametersInQuery = new ArrayList<>();
+    private String query;
+    private SqlTemplate template;
     private final HashMap<String, Object> parameters = new HashMap<>();
+    // slot i of primitives holds the value of primitiveNames[i] (one slot per name, reused on re-add)
+    private final List<String> primitiveNames = new ArrayList<>();
+    private final ValueBuffer primitives = new ValueBuffer();
     private final HashMap<String, String> inReplacement = new HashMap<>();
+    private final HashMap<String, List<?>> inValues = new HashMap<>();
+    private final HashMap<String, Object> inParameters = new HashMap<>();
+    private int chunkSize;
+    private int chunkParallelism;
+    private long cacheTtl;
+    private String cacheKey;
+    private boolean loading;
+    private Executor chunkExecutor;
     private String error;
 
     public SqlQuery(Connection connection, Autoclose autoclose) {
@@ -42,8 +68,24 @@ public class SqlQuery<T> extends SqlStatement<T> {
         super();
     }
 
+    /**
+     * Parsea el query una sola vez. El objeto devuelto es inmutable y puede compartirse entre hilos;
+     * cada ejecución usa {@link CompiledQuery#bind()}
+     *
+     * @param sql Query con parámetros ":parameter" (sin listas IN)
+     * @return Query compilado
+     */
+    public static <T> CompiledQuery<T> compile(String sql) {
+        return new CompiledQuery<>(sql, GeneratedKeys.NO_RETURN);
+    }
+
+    public static <T> CompiledQuery<T> compile(String sql, GeneratedKeys generatedKeys) {
+        return new CompiledQuery<>(sql, generatedKeys);
+    }
+
     public SqlQuery<T> setSql(String sql, GeneratedKeys generatedKeys) {
         this.query = sql;
+        this.template = null;
         this.generatedKeys = generatedKeys;
         return this;
     }
@@ -73,7 +115,66 @@ public class SqlQuery<T> extends SqlStatement<T> {
             this.error = "Parameter name can't be null or empty!";
         else if (value == null)
             this.error = String.format("Parameter '%s' value can't be null!", name);
-        else this.parameters.put(name, value);
+        else {
+            this.parameters.put(name, value);
+            int slot = this.primitiveNames.indexOf(name);
+            if (slot >= 0) this.primitives.set(slot, null);
+        }
+        return this;
+    }
+
+    /**
+     * @return slot of the primitive value of name (the existing one if it was already added), -1 if name is invalid
+     */
+    private int primitiveSlotFor(String name) {
+        if (this.error != null) return -1;
+        if (name == null || name.trim().isEmpty()) {
+            this.error = "Parameter name can't be null or empty!";
+            return -1;
+        }
+        this.parameters.remove(name);
+        int slot = this.primitiveNames.indexOf(name);
+        if (slot >= 0) return slot;
+        this.primitiveNames.add(name);
+        return this.primitiveNames.size() - 1;
+    }
+
+    /**
+     * @return slot of the primitive value of name, -1 if it has none
+     */
+    private int primitiveSlot(String name) {
+        int slot = this.primitiveNames.indexOf(name);
+        return slot >= 0 && this.primitives.isSet(slot) ? slot : -1;
+    }
+
+    /**
+     * Agrega un parámetro int sin boxing (se registra con setInt)
+     *
+     * @param name  Nombre del parámetro. Sin ":" (key)
+     * @param value Valor del parámetro (value)
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> addInt(String name, int value) {
+        int slot = this.primitiveSlotFor(name);
+        if (slot >= 0) this.primitives.setInt(slot, value);
+        return this;
+    }
+
+    public SqlQuery<T> addLong(String name, long value) {
+        int slot = this.primitiveSlotFor(name);
+        if (slot >= 0) this.primitives.setLong(slot, value);
+        return this;
+    }
+
+    public SqlQuery<T> addDouble(String name, double value) {
+        int slot = this.primitiveSlotFor(name);
+        if (slot >= 0) this.primitives.setDouble(slot, value);
+        return this;
+    }
+
+    public SqlQuery<T> addBoolean(String name, boolean value) {
+        int slot = this.primitiveSlotFor(name);
+        if (slot >= 0) this.primitives.setBoolean(slot, value);
         return this;
     }
 
@@ -97,45 +198,307 @@ public class SqlQuery<T> extends SqlStatement<T> {
             else {
                 if (!this.inReplacement.containsKey(name)) {
                     this.inReplacement.put(name, inOperator.getFields());
-                    inOperator.getParameters().forEach(this.parameters::put);
+                    this.inValues.put(name, values.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+                    inOperator.getParameters().forEach(this.inParameters::put);
                 }
             }
         }
         return this;
     }
 
+    /**
+     * Divide la lista más grande agregada con {@link #addParameter(String, List)} en bloques de
+     * <code>chunkSize</code> valores. En executeForList cada bloque se ejecuta en paralelo con su propia
+     * conexión (en secuencia si se brindó una conexión) y se unen los resultados; si un bloque falla
+     * no se ejecutan los pendientes.
+     * En {@link #execute()} los bloques se ejecutan en secuencia en una sola conexión y transacción
+     * (rollback si uno falla) y se suman los update counts; si la conexión brindada ya tiene
+     * autoCommit desactivado, el commit/rollback queda a cargo del que la brindó.
+     * Los bloques no heredan fetchSize, dialect ni cacheTtl, y un ORDER BY/LIMIT del query
+     * se aplica en cada bloque, no al resultado unido
+     *
+     * @param chunkSize Máximo de valores por sentencia (0: sin bloques)
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param chunkParallelism Máximo de bloques ejecutándose a la vez (def: pool.maxSize del pool, o 4)
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setChunkParallelism(int chunkParallelism) {
+        this.chunkParallelism = chunkParallelism;
+        return this;
+    }
+
+    /**
+     * @param chunkExecutor Executor de los bloques de {@link #setChunkSize(int)}.
+     *                      Por defecto un pool de hilos daemon compartido
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setChunkExecutor(Executor chunkExecutor) {
+        this.chunkExecutor = chunkExecutor;
+        return this;
+    }
+
+    /**
+     * Guarda el resultado de execute(Class)/executeForList(Class) en {@link QueryCache}.
+     * La clave es el query, los valores de los parámetros y la clase; el resultado se comparte entre
+     * llamadas (las listas son inmodificables). Las escrituras a las tablas leídas invalidan el resultado
+     *
+     * @param ttl  Tiempo de vida del resultado (0: sin cache)
+     * @param unit Unidad de ttl
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setCacheTtl(long ttl, TimeUnit unit) {
+        return this.setCacheTtl(ttl, unit, null);
+    }
+
+    /**
+     * Como {@link #setCacheTtl(long, TimeUnit)}, también para los métodos con mapper (lambda).
+     * Los lambdas no identifican al mapper (comparten clase por punto de llamada), por lo que
+     * cacheKey debe ser distinta para cada mapper/objGenerator con el mismo query
+     *
+     * @param cacheKey Identifica al mapper en la clave del resultado (null: solo se cachean los métodos con Class)
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setCacheTtl(long ttl, TimeUnit unit, String cacheKey) {
+        this.cacheTtl = unit.toMillis(ttl);
+        this.cacheKey = cacheKey;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R cached(Object mapper, boolean list, ThrowingFunction<SqlQuery<T>, R> loader) throws IOException, SQLException {
+        try {
+            Object mapperKey = mapper instanceof Class ? mapper : this.cacheKey;
+            if (this.cacheTtl <= 0 || this.loading || mapperKey == null) return loader.apply(this);
+            this.prepareQuery();
+            if (this.error != null) return loader.apply(this);
+            List<String> names = this.template.getParameterNames();
+            Object[] values = new Object[names.size()];
+            for (int i = 0; i < values.length; i++) {
+                int slot = this.primitiveSlot(names.get(i));
+                values[i] = slot < 0 ? this.getParameter(names.get(i)) : this.primitives.get(slot);
+            }
+            QueryCache.Key key = QueryCache.key(this.template.getJdbcSql(), values, mapperKey, list);
+            Object cached = QueryCache.get(key);
+            if (cached != null) {
+                this.close();
+                return (R) cached;
+            }
+            this.loading = true;
+            R result = loader.apply(this);
+            if (result instanceof List) result = (R) Collections.unmodifiableList((List<?>) result);
+            QueryCache.put(key, result, this.cacheTtl);
+            return result;
+        } catch (SQLException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cache Error: " + e.getMessage(), e);
+        } finally {
+            this.loading = false;
+        }
+    }
+
+    @Override
+    public T execute(Supplier<T> objGenerator, ThrowingBiConsumer<T, ResultSet> mapper) throws IOException, SQLException {
+        return this.cached(mapper, false, query -> super.execute(objGenerator, mapper));
+    }
+
+    @Override
+    public T execute(ThrowingBiFunction<PreparedStatement, ResultSet, T> executor) throws IOException, SQLException {
+        return this.cached(executor, false, query -> super.execute(executor));
+    }
+
+    @Override
+    public T execute(Class<T> type) throws IOException, SQLException {
+        return this.cached(type, false, query -> super.execute(type));
+    }
+
+    @Override
+    public List<T> executeForList(Class<T> type) throws IOException, SQLException {
+        return this.cached(type, true, query -> super.executeForList(type));
+    }
+
+    private String getChunkedParameter() {
+        if (this.chunkSize <= 0 || this.error != null) return null;
+        String chunked = null;
+        int max = this.chunkSize;
+        for (String name : this.inValues.keySet()) {
+            int size = this.inValues.get(name).size();
+            if (size > max) {
+                max = size;
+                chunked = name;
+            }
+        }
+        return chunked;
+    }
+
+    private Object getParameter(String name) {
+        Object value = this.parameters.get(name);
+        return value == null ? this.inParameters.get(name) : value;
+    }
+
+    private SqlQuery<T> buildChunk(String chunked, List<?> values, Connection connection) {
+        SqlQuery<T> chunk = connection == null ? new SqlQuery<>() : new SqlQuery<>(connection, Autoclose.NO);
+        chunk.setSql(this.query, this.generatedKeys);
+        chunk.parameters.putAll(this.parameters);
+        // the expanded IN values (inParameters) are added again by addParameter, only for the chunk's values
+        chunk.primitiveNames.addAll(this.primitiveNames);
+        for (int slot = 0; slot < this.primitiveNames.size(); slot++) chunk.primitives.set(slot, this.primitives, slot);
+        this.inValues.forEach((name, list) -> {
+            List<?> chunkValues = name.equals(chunked) ? values : list;
+            chunk.addParameter(name, chunkValues);
+        });
+        return chunk;
+    }
+
+    private <R> List<R> executeChunks(String chunked, ThrowingFunction<SqlQuery<T>, R> task) throws IOException, SQLException {
+        Connection connection = super.getCurrentConnection();
+        try {
+            return connection == null ? this.executeParallel(chunked, task) : this.executeSequential(chunked, task, connection);
+        } finally {
+            if (connection != null) this.close();
+        }
+    }
+
+    private <R> List<R> executeSequential(String chunked, ThrowingFunction<SqlQuery<T>, R> task, Connection connection) throws IOException, SQLException {
+        List<?> values = this.inValues.get(chunked);
+        List<R> results = new ArrayList<>();
+        try {
+            for (int from = 0; from < values.size(); from += chunkSize) {
+                List<?> chunkValues = values.subList(from, Math.min(from + chunkSize, values.size()));
+                results.add(task.apply(this.buildChunk(chunked, chunkValues, connection)));
+            }
+            return results;
+        } catch (SQLException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Chunk Error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * After the first failure no more chunks are submitted and the submitted ones that didn't start are skipped;
+     * the running ones are awaited (they hold a connection) and the first failure is thrown
+     */
+    private <R> List<R> executeParallel(String chunked, ThrowingFunction<SqlQuery<T>, R> task) throws IOException, SQLException {
+        List<?> values = this.inValues.get(chunked);
+        Executor executor = this.chunkExecutor == null ? ChunkExecutor.INSTANCE : this.chunkExecutor;
+        Semaphore inFlight = new Semaphore(this.getChunkParallelism());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<R>> futures = new ArrayList<>();
+        for (int from = 0; from < values.size() && failure.get() == null; from += chunkSize) {
+            SqlQuery<T> chunk = this.buildChunk(chunked, values.subList(from, Math.min(from + chunkSize, values.size())), null);
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+                throw new IOException("Interrupted while waiting to execute a chunk!", e);
+            }
+            CompletableFuture<R> future = CompletableFuture.supplyAsync(() -> {
+                if (failure.get() != null) throw new CancellationException();
+                try {
+                    return task.apply(chunk);
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                    throw new CompletionException(e);
+                }
+            }, executor);
+            future.whenComplete((result, e) -> inFlight.release());
+            futures.add(future);
+        }
+        List<R> results = new ArrayList<>();
+        for (CompletableFuture<R> future : futures)
+            try {
+                results.add(future.join());
+            } catch (CompletionException | CancellationException e) {
+                failure.compareAndSet(null, e.getCause() == null ? e : e.getCause());
+            }
+        Throwable cause = failure.get();
+        if (cause == null) return results;
+        if (cause instanceof SQLException) throw (SQLException) cause;
+        if (cause instanceof IOException) throw (IOException) cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        throw new IOException("Chunk Error: " + cause.getMessage(), cause);
+    }
+
+    private int getChunkParallelism() throws IOException {
+        if (this.chunkParallelism > 0) return this.chunkParallelism;
+        DataSource dataSource = Connector.getDataSource();
+        return dataSource instanceof ConnectionPool ? ((ConnectionPool) dataSource).getMaxSize() : DEFAULT_CHUNK_PARALLELISM;
+    }
+
+    private static class ChunkExecutor {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "simple-jdbc-chunk");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public List<T> executeForList(Supplier<T> objGenerator, ThrowingBiConsumer<T, ResultSet> mapper) throws IOException, SQLException {
+        return this.cached(mapper, true, query -> {
+            String chunked = this.getChunkedParameter();
+            if (chunked == null) return super.executeForList(objGenerator, mapper);
+            return this.executeChunks(chunked, chunk -> chunk.executeForList(objGenerator, mapper))
+                    .stream().flatMap(List::stream).collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public List<T> executeForList(ThrowingBiFunction<PreparedStatement, ResultSet, List<T>> executor) throws IOException, SQLException {
+        return this.cached(executor, true, query -> {
+            String chunked = this.getChunkedParameter();
+            if (chunked == null) return super.executeForList(executor);
+            return this.executeChunks(chunked, chunk -> chunk.executeForList(executor))
+                    .stream().flatMap(List::stream).collect(Collectors.toList());
+        });
+    }
+
     private void prepareQuery() {
-        if (!this.parametersInQuery.isEmpty() || this.error != null) return;
+        if (this.template != null || this.error != null) return;
         if (this.query == null || this.query.isEmpty()) {
             this.error = "Query can't be null or empty!";
             return;
         }
-        this.inReplacement.forEach((name, fields) -> this.query = this.query.replace(name, fields));
-        this.originalQuery = this.query;
-        Matcher matcher = Pattern.compile(":\\w+").matcher(this.query);
-        while (matcher.find()) {
-            String paramNameInQuery = matcher.group().substring(1);
-            if (this.parameters.containsKey(paramNameInQuery))
-                this.parametersInQuery.add(paramNameInQuery);
-            else {
+        SqlTemplate template = SqlTemplateCache.get(this.query);
+        if (!this.inReplacement.isEmpty())
+            template = SqlTemplateCache.get(template.expand(this.inReplacement));
+        for (String paramNameInQuery : template.getParameterNames())
+            if (this.getParameter(paramNameInQuery) == null && this.primitiveSlot(paramNameInQuery) < 0) {
                 this.error = String.format("Missing parameter '%s'!", paramNameInQuery);
-                break;
+                return;
             }
-        }
-        if (this.error != null) return;
-        this.parameters.keySet().forEach(name -> this.query = this.query.replace(":" + name, "?"));
+        this.template = template;
     }
 
     private PreparedStatement getPreparedStatement() throws SQLException, IOException {
-        Connection connection = super.getConnection();
-        return generatedKeys == GeneratedKeys.RETURN
-                ? connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
-                : connection.prepareStatement(query);
+        return super.prepareStatement(template.getJdbcSql(), generatedKeys);
+    }
+
+    @Override
+    public SqlQuery<T> setFetchSize(int fetchSize) {
+        super.setFetchSize(fetchSize);
+        return this;
+    }
+
+    @Override
+    public SqlQuery<T> setDialect(Dialect dialect) {
+        super.setDialect(dialect);
+        return this;
     }
 
     @Override
     protected SQLException buildCallableException(SQLException e) {
-        String msj = String.format("%s Query:(%s)", e.getMessage(), this.originalQuery);
+        String msj = String.format("%s Query:(%s)", e.getMessage(), this.query);
         return new SQLException(msj, e);
     }
 
@@ -144,11 +507,12 @@ public class SqlQuery<T> extends SqlStatement<T> {
         this.prepareQuery();
         if (this.error != null) throw new IOException(this.error);
         PreparedStatement statement = this.getPreparedStatement();
-        int size = parametersInQuery.size();
-        for (Integer pos : new CursorIterator(size)) {
+        List<String> parametersInQuery = template.getParameterNames();
+        for (Integer pos : new CursorIterator(parametersInQuery.size())) {
             String name = parametersInQuery.get(pos);
-            Object value = parameters.get(name);
-            SqlQuery.tryRegisterParameter(statement, pos, name, value);
+            int slot = this.primitiveSlot(name);
+            if (slot < 0) SqlQuery.tryRegisterParameter(statement, pos, name, this.getParameter(name));
+            else SqlQuery.tryRegisterParameter(statement, pos, name, primitives, slot);
         }
         statement.execute();
         return statement;
@@ -163,29 +527,17 @@ public class SqlQuery<T> extends SqlStatement<T> {
         }
     }
 
+    static void tryRegisterParameter(PreparedStatement statement, int pos, String name, ValueBuffer values, int index) throws SQLException {
+        try {
+            values.bind(statement, pos + 1, index);
+        } catch (Exception e) {
+            String error = String.format("Error setting '%s' parameter in statement! - ", name);
+            throw new SQLException(error + e.getMessage(), e);
+        }
+    }
+
     static void registerParameter(PreparedStatement statement, int index, Object value) throws SQLException {
-        Class<?> objClass = value.getClass();
-        if (objClass.isArray()) {
-            Class<?> componentType = value.getClass().getComponentType();
-            if (componentType != null && componentType.isPrimitive())
-                if (byte.class.isAssignableFrom(componentType))
-                    statement.setBytes(index, (byte[]) value);
-        } else if (objClass == Integer.class) statement.setInt(index, (Integer) value);
-        else if (objClass == String.class) statement.setString(index, (String) value);
-        else if (objClass == Boolean.class) statement.setBoolean(index, (Boolean) value);
-        else if (objClass == Double.class) statement.setDouble(index, (Double) value);
-        else if (objClass == Float.class) statement.setFloat(index, (Float) value);
-        else if (value instanceof InputStream) statement.setBlob(index, (InputStream) value);
-        else if (objClass == Date.class) {
-            long time = ((Date) value).getTime();
-            statement.setTimestamp(index, new Timestamp(time));
-        } else if (objClass == Time.class) statement.setTime(index, (Time) value);
-        else if (objClass == Timestamp.class) statement.setTimestamp(index, (Timestamp) value);
-        else if (objClass == LocalDate.class)
-            statement.setDate(index, java.sql.Date.valueOf((LocalDate) value));
-        else if (objClass == LocalTime.class) statement.setTime(index, Time.valueOf((LocalTime) value));
-        else if (objClass == LocalDateTime.class)
-            statement.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value));
+        ParameterBinders.bind(statement, index, value);
     }
 
     /**
@@ -198,21 +550,52 @@ public class SqlQuery<T> extends SqlStatement<T> {
      * @return rowCount/ID <b>rowCount</b><i>(default)</i>: Update count o -1 si
      * el resultado es un ResultSet o no hay más resultados. <br>
      * <b>ID<i>(Si GeneratedKeys.RETURN fue seleccionado)</i></b>: Primer ID
-     * autogenerado a partir de un INSERT.
+     * autogenerado a partir de un INSERT. <br>
+     * Con {@link #setChunkSize(int)}: suma de los update counts de cada bloque.
      */
     public int execute() throws IOException, SQLException {
-        if (this.generatedKeys == GeneratedKeys.RETURN) {
-            ResultSet rs = this.executeStatement().getGeneratedKeys();
-            if (rs.next()) {
-                int autoGeneratedKey = rs.getInt(1);
-                this.close();
-                if (autoGeneratedKey <= 0) throw new SQLException("Error getting autogenerated key");
-                return autoGeneratedKey;
+        String chunked = this.generatedKeys == GeneratedKeys.RETURN ? null : this.getChunkedParameter();
+        if (chunked != null) return this.executeChunkedWrite(chunked);
+        try {
+            PreparedStatement statement = this.executeStatement();
+            if (this.generatedKeys == GeneratedKeys.RETURN) {
+                ResultSet rs = statement.getGeneratedKeys();
+                if (rs.next()) {
+                    int autoGeneratedKey = rs.getInt(1);
+                    if (autoGeneratedKey <= 0) throw new SQLException("Error getting autogenerated key");
+                    return autoGeneratedKey;
+                }
+            }
+            return statement.getUpdateCount();
+        } finally {
+            this.close();
+            if (this.query != null) QueryCache.invalidateFor(this.query);
+        }
+    }
+
+    private int executeChunkedWrite(String chunked) throws IOException, SQLException {
+        try {
+            Connection connection = this.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) connection.setAutoCommit(false);
+            try {
+                int count = this.executeSequential(chunked, SqlQuery::execute, connection).stream().mapToInt(Integer::intValue).sum();
+                if (autoCommit) connection.commit();
+                return count;
+            } catch (SQLException | IOException | RuntimeException e) {
+                if (autoCommit) try {
+                    connection.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                if (autoCommit) connection.setAutoCommit(true);
             }
+        } finally {
+            this.close();
+            QueryCache.invalidateFor(this.query);
         }
-        int rowCount = executeStatement().getUpdateCount();
-        this.close();
-        return rowCount;
     }
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package pe.mrodas.db;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -9,7 +10,8 @@ import java.util.List;
 import java.util.Map;
 
 import pe.mrodas.db.helper.Autoclose;
-import pe.mrodas.db.helper.InOperator;
+import pe.mrodas.db.helper.QueryCache;
+import pe.mrodas.db.helper.ValueBuffer;
 
 public class SqlUpdate {
     private final static String QUERY = "UPDATE <table> SET <fields> WHERE <filters>";
@@ -17,7 +19,9 @@ public class SqlUpdate {
     private final List<String> filters = new ArrayList<>();
     private final Map<String, Object> fieldsMap = new HashMap<>();
     private final Map<String, Object> filtersMap = new HashMap<>();
+    private final Map<String, List<?>> filterListsMap = new HashMap<>();
     private final String table;
+    private int chunkSize;
 
     public SqlUpdate(String table) {
         this.table = table;
@@ -40,10 +44,20 @@ public class SqlUpdate {
     public <T> SqlUpdate addFilter(String name, List<T> values) {
         if (name == null || name.isEmpty()) return this;
         if (values == null || values.isEmpty()) return this;
-        InOperator<T> inOperator = new InOperator<>(name, values);
-        String fields = inOperator.getFields();
-        this.filters.add(String.format("%s IN (%s)", name, fields));
-        inOperator.getParameters().forEach(this.fieldsMap::put);
+        this.filters.add(String.format("%s IN (:%s)", name, name));
+        this.filterListsMap.put(name, values);
+        return this;
+    }
+
+    /**
+     * Ejecuta el UPDATE en bloques de <code>chunkSize</code> valores de la lista más grande
+     * agregada con {@link #addFilter(String, List)}. Ver {@link SqlQuery#setChunkSize(int)}
+     *
+     * @param chunkSize Máximo de valores por sentencia (0: sin bloques)
+     * @return El mismo objeto SqlUpdate
+     */
+    public SqlUpdate setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
         return this;
     }
 
@@ -58,10 +72,157 @@ public class SqlUpdate {
         String preparedQuery = QUERY.replace("<table>", table)
                 .replace("<fields>", String.join(", ", fields))
                 .replace("<filters>", String.join(" AND ", filters));
-        sqlQuery.setSql(preparedQuery);
+        sqlQuery.setSql(preparedQuery).setChunkSize(chunkSize);
         this.fieldsMap.forEach(sqlQuery::addParameter);
         this.filtersMap.forEach(sqlQuery::addParameter);
+        this.filterListsMap.forEach((name, values) -> sqlQuery.addParameter(name, values));
         return sqlQuery.execute();
     }
 
+    /**
+     * UPDATE de varias filas con los mismos campos y filtros. La sentencia se prepara una sola vez y las
+     * filas se ejecutan como batch JDBC:
+     * <pre><code>
+     * int[] counts = SqlUpdate.batch("item").fields("name", "price").filters("id")
+     *      .addRow("a", 1.5, 1)
+     *      .addRow("b", 2.0, 2)
+     *      .execute();
+     * </code></pre>
+     */
+    public static Batch batch(String table) {
+        return new Batch(table);
+    }
+
+    public static class Batch {
+        private final static int BATCH_SIZE = 1000;
+        private final String table;
+        private String[] fields = new String[0];
+        private String[] filters = new String[0];
+        private ValueBuffer[] columns;
+        private int batchSize;
+
+        private Batch(String table) {
+            this.table = table;
+        }
+
+        /**
+         * @param names Campos del SET, en el orden de los valores de {@link #addRow(Object...)}
+         * @return El mismo objeto Batch
+         */
+        public Batch fields(String... names) {
+            this.checkNoRows();
+            this.fields = names.clone();
+            return this;
+        }
+
+        /**
+         * @param names Filtros del WHERE (unidos con AND), después de los campos en {@link #addRow(Object...)}
+         * @return El mismo objeto Batch
+         */
+        public Batch filters(String... names) {
+            this.checkNoRows();
+            this.filters = names.clone();
+            return this;
+        }
+
+        /**
+         * @param batchSize Filas por executeBatch (def: 1000)
+         * @return El mismo objeto Batch
+         */
+        public Batch setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        private void checkNoRows() {
+            if (columns != null) throw new IllegalStateException("Fields and filters must be defined before adding rows");
+        }
+
+        /**
+         * Agrega una fila: los valores de los campos y luego los de los filtros. null se asigna como NULL
+         * (en un filtro, la fila no se actualiza)
+         *
+         * @return El mismo objeto Batch
+         */
+        public Batch addRow(Object... values) {
+            if (columns == null) {
+                if (fields.length == 0 || filters.length == 0)
+                    throw new IllegalStateException("Fields and filters can't be empty");
+                columns = new ValueBuffer[fields.length + filters.length];
+                for (int i = 0; i < columns.length; i++) columns[i] = new ValueBuffer();
+            }
+            if (values == null || values.length != columns.length) {
+                String error = String.format("Row must have %s values, not %s", columns.length, values == null ? 0 : values.length);
+                throw new IllegalArgumentException(error);
+            }
+            int index = columns[0].size();
+            for (int i = 0; i < columns.length; i++) columns[i].setUnboxed(index, values[i]);
+            return this;
+        }
+
+        public int size() {
+            return columns == null ? 0 : columns[0].size();
+        }
+
+        private String getPreparedQuery() {
+            List<String> fields = new ArrayList<>(this.fields.length);
+            for (String name : this.fields) fields.add(name + " = ?");
+            List<String> filters = new ArrayList<>(this.filters.length);
+            for (String name : this.filters) filters.add(name + " = ?");
+            return QUERY.replace("<table>", table)
+                    .replace("<fields>", String.join(", ", fields))
+                    .replace("<filters>", String.join(" AND ", filters));
+        }
+
+        public int[] execute() throws IOException, SQLException {
+            return this.execute(null, null);
+        }
+
+        /**
+         * @return update count de cada fila, en el orden de las filas
+         * (Statement.SUCCESS_NO_INFO si el driver no lo informa)
+         */
+        public int[] execute(Connection connection, Autoclose autoclose) throws IOException, SQLException {
+            if (table == null) throw new IOException("Table name can't be null!");
+            int totalRows = this.size();
+            if (totalRows == 0) throw new IOException("Rows can't be empty!");
+            int batchSize = this.batchSize > 0 ? this.batchSize : BATCH_SIZE;
+            int[] counts = new int[totalRows];
+            Connection conn = connection == null ? Connector.getConnection() : connection;
+            try (PreparedStatement statement = conn.prepareStatement(this.getPreparedQuery())) {
+                for (int from = 0; from < totalRows; from += batchSize) {
+                    int rows = Math.min(batchSize, totalRows - from);
+                    for (int row = from; row < from + rows; row++) {
+                        for (int col = 0; col < columns.length; col++) this.tryRegisterParameter(statement, col, row);
+                        statement.addBatch();
+                    }
+                    int[] chunk = statement.executeBatch();
+                    System.arraycopy(chunk, 0, counts, from, Math.min(chunk.length, rows));
+                    statement.clearBatch();
+                }
+                return counts;
+            } finally {
+                if (connection == null || autoclose != Autoclose.NO) Batch.close(conn);
+                QueryCache.invalidate(table);
+            }
+        }
+
+        private void tryRegisterParameter(PreparedStatement statement, int col, int row) throws SQLException {
+            try {
+                columns[col].bind(statement, col + 1, row);
+            } catch (Exception e) {
+                String name = col < fields.length ? fields[col] : filters[col - fields.length];
+                String error = String.format("Error setting '%s' parameter (row=%s) in statement! - ", name, row) + e.getMessage();
+                throw new SQLException(error, e);
+            }
+        }
+
+        private static void close(Connection conn) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 }
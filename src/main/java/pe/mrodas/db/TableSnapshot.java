@@ -0,0 +1,251 @@
+package pe.mrodas.db;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+import pe.mrodas.db.helper.BeanMapper;
+import pe.mrodas.db.helper.LongObjectMap;
+import pe.mrodas.db.helper.ResultIterator;
+import pe.mrodas.db.helper.UncheckedSQLException;
+
+/**
+ * In-memory copy of a (small or medium) reference table, indexed by its int/long primary key:
+ * <pre>
+ * {@code
+ * TableSnapshot<Country> countries = new TableSnapshot<>(Country.class, "country", Country::getId)
+ *      .setWatermark("updated_at").load().refreshEvery(1, TimeUnit.MINUTES);
+ * Country country = countries.get(51);
+ * }</pre>
+ * Rows are mapped with {@link BeanMapper}. Reads are lock free: every refresh builds a new index
+ * (copy-on-write) and publishes it at once. With a watermark column, {@link #refresh()} only reads the rows
+ * changed since the last load ({@code column >= last max value}, skipping the rows already read at that value);
+ * a refresh without changes doesn't copy the index. A refresh can't see deleted rows: they are only removed by
+ * {@link #load()}, which {@link #refresh()} runs instead every {@link #setFullLoadEvery(long, TimeUnit)}.
+ */
+public class TableSnapshot<T> implements AutoCloseable {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[\\w.]+");
+    private final Class<T> type;
+    private final String table;
+    private final ToLongFunction<T> keyGetter;
+    private String watermarkColumn;
+    private Timestamp watermark;
+    private Set<Long> watermarkKeys = new HashSet<>();
+    private volatile LongObjectMap<T> rows = new LongObjectMap<>(0);
+    private volatile long lastRefresh;
+    private long lastLoad, fullLoadInterval;
+    private volatile Exception lastError;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param type      class of the rows
+     * @param table     table name
+     * @param keyGetter primary key of a row
+     */
+    public TableSnapshot(Class<T> type, String table, ToLongFunction<T> keyGetter) {
+        if (type == null || keyGetter == null) throw new IllegalArgumentException("Type and keyGetter can't be null!");
+        TableSnapshot.checkName(table, "Table");
+        this.type = type;
+        this.table = table.trim();
+        this.keyGetter = keyGetter;
+    }
+
+    /**
+     * @param column timestamp column updated on every insert/update of a row (ex: updated_at)
+     * @return the same TableSnapshot
+     */
+    public TableSnapshot<T> setWatermark(String column) {
+        if (column != null) TableSnapshot.checkName(column, "Watermark column");
+        this.watermarkColumn = column == null ? null : column.trim();
+        return this;
+    }
+
+    /**
+     * Deleted rows are not seen by a watermark refresh: every interval, refresh() reads the whole table instead
+     *
+     * @param interval time between full loads (0: only on {@link #load()}, def)
+     * @return the same TableSnapshot
+     */
+    public synchronized TableSnapshot<T> setFullLoadEvery(long interval, TimeUnit unit) {
+        this.fullLoadInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * The names are concatenated to the SQL: only letters, digits, '_' and '.' are allowed
+     */
+    private static void checkName(String name, String what) {
+        if (name == null || !IDENTIFIER.matcher(name.trim()).matches())
+            throw new IllegalArgumentException(what + " name must be a SQL identifier ([\\w.]+)!");
+    }
+
+    /**
+     * Reads the whole table and replaces the index
+     *
+     * @return the same TableSnapshot
+     */
+    public synchronized TableSnapshot<T> load() throws IOException, SQLException {
+        LongObjectMap<T> index = new LongObjectMap<>(rows.size());
+        Set<Long> keys = new HashSet<>();
+        this.watermark = this.read(new SqlQuery<T>().setSql("SELECT * FROM " + table), index, null, Collections.emptySet(), keys);
+        this.watermarkKeys = keys;
+        this.publish(index);
+        lastLoad = lastRefresh;
+        return this;
+    }
+
+    /**
+     * Reads the rows changed since the last load (the whole table without a watermark column)
+     *
+     * @return number of rows read
+     */
+    public synchronized int refresh() throws IOException, SQLException {
+        boolean fullLoad = fullLoadInterval > 0 && System.currentTimeMillis() - lastLoad >= fullLoadInterval;
+        if (watermarkColumn == null || watermark == null || fullLoad) {
+            this.load();
+            return rows.size();
+        }
+        LongObjectMap<T> changes = new LongObjectMap<>(16);
+        SqlQuery<T> query = new SqlQuery<T>()
+                .setSql(String.format("SELECT * FROM %s WHERE %s >= :watermark", table, watermarkColumn))
+                .addParameter("watermark", watermark);
+        Set<Long> keys = new HashSet<>(watermarkKeys);
+        Timestamp max = this.read(query, changes, watermark, watermarkKeys, keys);
+        if (changes.size() == 0) {
+            lastRefresh = System.currentTimeMillis();
+            return 0;
+        }
+        LongObjectMap<T> index = rows.copy();
+        for (T row : changes.values()) index.put(keyGetter.applyAsLong(row), row);
+        watermark = max;
+        watermarkKeys = keys;
+        this.publish(index);
+        return changes.size();
+    }
+
+    /**
+     * @param from  current watermark (null on load)
+     * @param seen  keys already read at from (skipped)
+     * @param atMax keys read at the returned max (initially the keys read at from)
+     * @return max watermark value
+     */
+    private Timestamp read(SqlQuery<T> query, LongObjectMap<T> index, Timestamp from, Set<Long> seen, Set<Long> atMax) throws IOException, SQLException {
+        Timestamp max = from;
+        RowReader reader = new RowReader();
+        try (ResultIterator<T> iterator = query.iterate(reader::map)) {
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                long key = keyGetter.applyAsLong(row);
+                Timestamp value = reader.watermark;
+                if (value != null && value.equals(from) && seen.contains(key)) continue;
+                index.put(key, row);
+                if (value == null) continue;
+                if (max == null || value.after(max)) {
+                    max = value;
+                    atMax.clear();
+                }
+                if (value.equals(max)) atMax.add(key);
+            }
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        }
+        return max;
+    }
+
+    /**
+     * Maps a row and keeps its watermark value (the mapper is built from the metadata of the first row)
+     */
+    private class RowReader {
+
+        private BeanMapper<T> mapper;
+        private int watermarkIndex;
+        private Timestamp watermark;
+
+        private T map(ResultSet rs) throws SQLException {
+            if (mapper == null) {
+                mapper = BeanMapper.of(type, rs.getMetaData());
+                watermarkIndex = watermarkColumn == null ? 0 : rs.findColumn(watermarkColumn);
+            }
+            watermark = watermarkIndex == 0 ? null : rs.getTimestamp(watermarkIndex);
+            return mapper.map(rs);
+        }
+    }
+
+    private void publish(LongObjectMap<T> index) {
+        rows = index;
+        lastRefresh = System.currentTimeMillis();
+        lastError = null;
+    }
+
+    /**
+     * Calls {@link #refresh()} periodically in a background (daemon) thread. Errors are kept in {@link #getLastError()}
+     *
+     * @return the same TableSnapshot
+     */
+    public synchronized TableSnapshot<T> refreshEvery(long period, TimeUnit unit) {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simple-jdbc-snapshot-" + table);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                this.refresh();
+            } catch (Exception e) {
+                lastError = e;
+            }
+        }, period, period, unit);
+        return this;
+    }
+
+    /**
+     * @return the row with that primary key, null if not found
+     */
+    public T get(long key) {
+        return rows.get(key);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public List<T> values() {
+        return rows.values();
+    }
+
+    public Timestamp getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return time of the last successful refresh (ms), 0 if never loaded
+     */
+    public long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    /**
+     * @return error of the last background refresh, null if it succeeded
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+}
@@ -0,0 +1,321 @@
+package pe.mrodas.db.helper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the rows of a ResultSet to objects of a class, matching each column label with a setter
+ * ({@code setName(value)} or fluent {@code withName(value)} that returns the object) or a field of the class.
+ * Overloaded setters use the one with the type of the field of the same name; otherwise they are ambiguous
+ * and mapping a column to them fails.
+ * Labels and property names are compared in lower case and without "_" (ex: "first_name" = "firstName").
+ * <p>
+ * The plan (column index, getter kind and setter MethodHandle of each column) is built once per
+ * class and column labels, and cached. Primitive columns are read and set without boxing.
+ * Columns without a property are ignored.</p>
+ */
+public final class BeanMapper<T> {
+
+    private static final byte INT = 0, LONG = 1, DOUBLE = 2, FLOAT = 3, SHORT = 4, BYTE = 5, BOOLEAN = 6, OBJECT = 7;
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ClassValue<ConcurrentHashMap<String, BeanMapper<?>>> PLANS = new ClassValue<ConcurrentHashMap<String, BeanMapper<?>>>() {
+        @Override
+        protected ConcurrentHashMap<String, BeanMapper<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private interface Reader {
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+
+    private final MethodHandle constructor;
+    private final int[] columns;
+    private final byte[] kinds;
+    private final MethodHandle[] setters;
+    private final Reader[] readers;
+
+    private BeanMapper(Class<T> type, String[] labels) throws SQLException {
+        this.constructor = BeanMapper.findConstructor(type);
+        Map<String, Property> properties = BeanMapper.findProperties(type);
+        int total = 0;
+        int[] columns = new int[labels.length];
+        byte[] kinds = new byte[labels.length];
+        MethodHandle[] setters = new MethodHandle[labels.length];
+        Reader[] readers = new Reader[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            Property property = properties.get(BeanMapper.normalize(labels[i]));
+            if (property == null) continue;
+            if (property.setter == null)
+                throw new SQLException(String.format("Ambiguous setters for column '%s' of %s: %s!", labels[i], type.getName(), property.ambiguity));
+            Class<?> propertyType = property.type;
+            byte kind = BeanMapper.getKind(propertyType);
+            Class<?> handleType = kind == OBJECT ? Object.class : propertyType;
+            columns[total] = i + 1;
+            kinds[total] = kind;
+            setters[total] = property.setter.asType(MethodType.methodType(void.class, Object.class, handleType));
+            readers[total] = kind == OBJECT ? BeanMapper.getReader(propertyType) : null;
+            total++;
+        }
+        this.columns = Arrays.copyOf(columns, total);
+        this.kinds = Arrays.copyOf(kinds, total);
+        this.setters = Arrays.copyOf(setters, total);
+        this.readers = Arrays.copyOf(readers, total);
+    }
+
+    /**
+     * @param type class of the rows. Needs a constructor without parameters
+     * @param rsmd metadata of the ResultSet to map
+     * @return the cached plan for the class and the column labels of rsmd
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanMapper<T> of(Class<T> type, ResultSetMetaData rsmd) throws SQLException {
+        int count = rsmd.getColumnCount();
+        String[] labels = new String[count];
+        StringBuilder key = new StringBuilder(count * 12);
+        for (int i = 0; i < count; i++) {
+            labels[i] = rsmd.getColumnLabel(i + 1);
+            key.append(labels[i]).append('\u0000');
+        }
+        ConcurrentHashMap<String, BeanMapper<?>> plans = PLANS.get(type);
+        BeanMapper<?> plan = plans.get(key.toString());
+        if (plan == null) {
+            plan = new BeanMapper<>(type, labels);
+            BeanMapper<?> previous = plans.putIfAbsent(key.toString(), plan);
+            if (previous != null) plan = previous;
+        }
+        return (BeanMapper<T>) plan;
+    }
+
+    /**
+     * @return a new object with the values of the current row
+     */
+    @SuppressWarnings("unchecked")
+    public T map(ResultSet rs) throws SQLException {
+        T obj;
+        try {
+            obj = (T) constructor.invoke();
+        } catch (Throwable e) {
+            throw new SQLException("Error creating object: " + e.getMessage(), e);
+        }
+        this.map(obj, rs);
+        return obj;
+    }
+
+    /**
+     * Sets the values of the current row in obj
+     */
+    public void map(T obj, ResultSet rs) throws SQLException {
+        Object target = obj;
+        int i = 0;
+        try {
+            for (; i < columns.length; i++) {
+                int column = columns[i];
+                MethodHandle setter = setters[i];
+                switch (kinds[i]) {
+                    case INT:
+                        setter.invokeExact(target, rs.getInt(column));
+                        break;
+                    case LONG:
+                        setter.invokeExact(target, rs.getLong(column));
+                        break;
+                    case DOUBLE:
+                        setter.invokeExact(target, rs.getDouble(column));
+                        break;
+                    case FLOAT:
+                        setter.invokeExact(target, rs.getFloat(column));
+                        break;
+                    case SHORT:
+                        setter.invokeExact(target, rs.getShort(column));
+                        break;
+                    case BYTE:
+                        setter.invokeExact(target, rs.getByte(column));
+                        break;
+                    case BOOLEAN:
+                        setter.invokeExact(target, rs.getBoolean(column));
+                        break;
+                    default:
+                        setter.invokeExact(target, readers[i].read(rs, column));
+                }
+            }
+        } catch (SQLException e) {
+            throw e;
+        } catch (Throwable e) {
+            String error = String.format("Error mapping column #%s: %s", columns[i], e.getMessage());
+            throw new SQLException(error, e);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static byte getKind(Class<?> type) {
+        if (type == int.class) return INT;
+        if (type == long.class) return LONG;
+        if (type == double.class) return DOUBLE;
+        if (type == float.class) return FLOAT;
+        if (type == short.class) return SHORT;
+        if (type == byte.class) return BYTE;
+        if (type == boolean.class) return BOOLEAN;
+        return OBJECT;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Reader getReader(Class<?> type) {
+        if (type == String.class) return ResultSet::getString;
+        if (type == Integer.class) return (rs, i) -> {
+            int value = rs.getInt(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == Long.class) return (rs, i) -> {
+            long value = rs.getLong(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == Double.class) return (rs, i) -> {
+            double value = rs.getDouble(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == Float.class) return (rs, i) -> {
+            float value = rs.getFloat(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == Short.class) return (rs, i) -> {
+            short value = rs.getShort(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == Byte.class) return (rs, i) -> {
+            byte value = rs.getByte(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == Boolean.class) return (rs, i) -> {
+            boolean value = rs.getBoolean(i);
+            return rs.wasNull() ? null : value;
+        };
+        if (type == BigDecimal.class) return ResultSet::getBigDecimal;
+        if (type == byte[].class) return ResultSet::getBytes;
+        if (type == Timestamp.class || type == java.util.Date.class) return ResultSet::getTimestamp;
+        if (type == java.sql.Date.class) return ResultSet::getDate;
+        if (type == Time.class) return ResultSet::getTime;
+        if (type == LocalDateTime.class) return (rs, i) -> {
+            Timestamp value = rs.getTimestamp(i);
+            return value == null ? null : value.toLocalDateTime();
+        };
+        if (type == LocalDate.class) return (rs, i) -> {
+            java.sql.Date value = rs.getDate(i);
+            return value == null ? null : value.toLocalDate();
+        };
+        if (type == LocalTime.class) return (rs, i) -> {
+            Time value = rs.getTime(i);
+            return value == null ? null : value.toLocalTime();
+        };
+        if (type.isEnum()) return (rs, i) -> {
+            String value = rs.getString(i);
+            return value == null ? null : Enum.valueOf((Class<? extends Enum>) type, value);
+        };
+        return ResultSet::getObject;
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) throws SQLException {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            String error = String.format("%s needs a constructor without parameters!", type.getName());
+            throw new SQLException(error, e);
+        }
+    }
+
+    /**
+     * Setters have priority over fluent setters (with...), and these over fields (fields of subclasses first)
+     */
+    private static Map<String, Property> findProperties(Class<?> type) throws SQLException {
+        Map<String, Property> properties = new HashMap<>();
+        try {
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()) continue;
+                    String name = BeanMapper.normalize(field.getName());
+                    if (properties.containsKey(name)) continue;
+                    field.setAccessible(true);
+                    properties.put(name, new Property(field.getType(), LOOKUP.unreflectSetter(field)));
+                }
+            Map<String, Property> setters = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1 || method.isBridge())
+                    continue;
+                String name = method.getName();
+                Class<?> returnType = method.getReturnType();
+                int rank = name.length() > 3 && name.startsWith("set") ? 0
+                        : name.length() > 4 && name.startsWith("with") && returnType != Object.class && returnType.isAssignableFrom(type) ? 1 : -1;
+                if (rank < 0) continue;
+                String property = BeanMapper.normalize(name.substring(rank == 0 ? 3 : 4));
+                Property field = properties.get(property);
+                Property candidate = new Property(method.getParameterTypes()[0], LOOKUP.unreflect(method), rank, null);
+                setters.merge(property, candidate, (previous, current) -> BeanMapper.choose(previous, current, field));
+            }
+            properties.putAll(setters);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new SQLException(String.format("Error reading properties of %s!", type.getName()), e);
+        }
+        return properties;
+    }
+
+    /**
+     * getMethods() has no defined order: between overloads, keeps the one with the type of the field
+     *
+     * @param field field of the property (nullable)
+     * @return an ambiguous property (without setter) if no overload matches the field
+     */
+    private static Property choose(Property previous, Property current, Property field) {
+        if (previous.rank != current.rank) return previous.rank < current.rank ? previous : current;
+        if (field != null && previous.type == field.type) return previous;
+        if (field != null && current.type == field.type) return current;
+        String types = (previous.ambiguity == null ? previous.type.getSimpleName() : previous.ambiguity) + ", " + current.type.getSimpleName();
+        return new Property(current.type, null, current.rank, types);
+    }
+
+    private static class Property {
+
+        private final Class<?> type;
+        private final MethodHandle setter;
+        private final int rank;
+        private final String ambiguity;
+
+        private Property(Class<?> type, MethodHandle setter) {
+            this(type, setter, 2, null);
+        }
+
+        /**
+         * @param rank      0: setter, 1: fluent setter, 2: field
+         * @param ambiguity types of the overloads if setter is null
+         */
+        private Property(Class<?> type, MethodHandle setter, int rank, String ambiguity) {
+            this.type = type;
+            this.setter = setter;
+            this.rank = rank;
+            this.ambiguity = ambiguity;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package pe.mrodas.db.helper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Result read by columns into typed vectors instead of one object per row:
+ * <ul>
+ * <li>INTEGER, SMALLINT, TINYINT: int</li>
+ * <li>BIGINT: long</li>
+ * <li>DOUBLE, FLOAT, REAL: double</li>
+ * <li>BIT, BOOLEAN: boolean (bitmap)</li>
+ * <li>CHAR, VARCHAR (and N/LONG variants): String, dictionary encoded (int code per row)</li>
+ * <li>Other types (DECIMAL, dates, ...): Object</li>
+ * </ul>
+ * Nulls are kept in a bitmap per column. Vectors grow in chunks of {@value #CHUNK_SIZE} rows, so
+ * growing never copies values. Rows and columns are 0 based.
+ */
+public final class ColumnarResult {
+
+    public enum Kind {
+        INT, LONG, DOUBLE, BOOLEAN, STRING, OBJECT
+    }
+
+    public static final int CHUNK_SIZE = 1 << 12;
+    private static final int SHIFT = 12, MASK = CHUNK_SIZE - 1;
+
+    private final String[] labels;
+    private final Column[] columns;
+    private int rowCount;
+
+    private ColumnarResult(String[] labels, Column[] columns) {
+        this.labels = labels;
+        this.columns = columns;
+    }
+
+    /**
+     * Reads every remaining row of rs (rs is not closed)
+     */
+    public static ColumnarResult read(ResultSet rs) throws SQLException {
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int count = rsmd.getColumnCount();
+        String[] labels = new String[count];
+        Column[] columns = new Column[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = rsmd.getColumnLabel(i + 1);
+            columns[i] = ColumnarResult.newColumn(rsmd.getColumnType(i + 1));
+        }
+        ColumnarResult result = new ColumnarResult(labels, columns);
+        int row = 0;
+        while (rs.next()) {
+            for (int i = 0; i < count; i++) columns[i].read(rs, i + 1, row);
+            row++;
+        }
+        result.rowCount = row;
+        return result;
+    }
+
+    private static Column newColumn(int sqlType) {
+        switch (sqlType) {
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return new IntColumn(Kind.INT);
+            case Types.BIGINT:
+                return new LongColumn();
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+                return new DoubleColumn();
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return new BooleanColumn();
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringColumn();
+            default:
+                return new ObjectColumn();
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getLabel(int column) {
+        return labels[column];
+    }
+
+    /**
+     * @return index of the column (case insensitive), -1 if not found
+     */
+    public int indexOf(String label) {
+        for (int i = 0; i < labels.length; i++) if (labels[i].equalsIgnoreCase(label)) return i;
+        return -1;
+    }
+
+    public Kind getKind(int column) {
+        return columns[column].kind;
+    }
+
+    public boolean isNull(int row, int column) {
+        BitSet nulls = columns[column].nulls;
+        return nulls != null && nulls.get(row);
+    }
+
+    /**
+     * @return the value, 0 if null
+     * @throws IllegalStateException if the column is not INT
+     */
+    public int getInt(int row, int column) {
+        return this.check(column, Kind.INT, IntColumn.class).get(row);
+    }
+
+    /**
+     * @return the value of an INT or LONG column, 0 if null
+     */
+    public long getLong(int row, int column) {
+        Column col = columns[column];
+        if (col.kind == Kind.INT) return ((IntColumn) col).get(row);
+        return this.check(column, Kind.LONG, LongColumn.class).get(row);
+    }
+
+    /**
+     * @return the value of an INT, LONG or DOUBLE column, 0 if null
+     */
+    public double getDouble(int row, int column) {
+        Column col = columns[column];
+        if (col.kind == Kind.INT) return ((IntColumn) col).get(row);
+        if (col.kind == Kind.LONG) return ((LongColumn) col).get(row);
+        return this.check(column, Kind.DOUBLE, DoubleColumn.class).get(row);
+    }
+
+    public boolean getBoolean(int row, int column) {
+        return this.check(column, Kind.BOOLEAN, BooleanColumn.class).values.get(row);
+    }
+
+    /**
+     * @return dictionary code of a STRING column value (index in {@link #getDictionary(int)}), -1 if null
+     */
+    public int getCode(int row, int column) {
+        StringColumn col = this.check(column, Kind.STRING, StringColumn.class);
+        return this.isNull(row, column) ? -1 : col.codes.get(row);
+    }
+
+    /**
+     * @return distinct values of a STRING column, in order of first appearance
+     */
+    public List<String> getDictionary(int column) {
+        return Collections.unmodifiableList(this.check(column, Kind.STRING, StringColumn.class).dictionary);
+    }
+
+    /**
+     * @return the value of a STRING column, String.valueOf(value) for other kinds, null if null
+     */
+    public String getString(int row, int column) {
+        if (this.isNull(row, column)) return null;
+        Column col = columns[column];
+        if (col.kind == Kind.STRING) {
+            StringColumn strings = (StringColumn) col;
+            return strings.dictionary.get(strings.codes.get(row));
+        }
+        return String.valueOf(this.getObject(row, column));
+    }
+
+    /**
+     * @return the value (boxed if primitive), null if null
+     */
+    public Object getObject(int row, int column) {
+        if (this.isNull(row, column)) return null;
+        switch (columns[column].kind) {
+            case INT:
+                return this.getInt(row, column);
+            case LONG:
+                return this.getLong(row, column);
+            case DOUBLE:
+                return this.getDouble(row, column);
+            case BOOLEAN:
+                return this.getBoolean(row, column);
+            case STRING:
+                return this.getString(row, column);
+            default:
+                return ((ObjectColumn) columns[column]).get(row);
+        }
+    }
+
+    private <C extends Column> C check(int column, Kind kind, Class<C> type) {
+        Column col = columns[column];
+        if (col.kind != kind)
+            throw new IllegalStateException(String.format("Column '%s' is %s, not %s!", labels[column], col.kind, kind));
+        return type.cast(col);
+    }
+
+    private abstract static class Column {
+
+        private final Kind kind;
+        private BitSet nulls;
+
+        private Column(Kind kind) {
+            this.kind = kind;
+        }
+
+        abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+        void checkNull(ResultSet rs, int row) throws SQLException {
+            if (!rs.wasNull()) return;
+            if (nulls == null) nulls = new BitSet();
+            nulls.set(row);
+        }
+    }
+
+    private static class IntColumn extends Column {
+
+        private int[][] chunks = new int[1][];
+
+        private IntColumn(Kind kind) {
+            super(kind);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            this.set(row, rs.getInt(columnIndex));
+            this.checkNull(rs, row);
+        }
+
+        void set(int row, int value) {
+            int chunk = row >>> SHIFT;
+            if (chunk == chunks.length) chunks = Arrays.copyOf(chunks, chunk * 2);
+            if (chunks[chunk] == null) chunks[chunk] = new int[CHUNK_SIZE];
+            chunks[chunk][row & MASK] = value;
+        }
+
+        int get(int row) {
+            return chunks[row >>> SHIFT][row & MASK];
+        }
+    }
+
+    private static class LongColumn extends Column {
+
+        private long[][] chunks = new long[1][];
+
+        private LongColumn() {
+            super(Kind.LONG);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            int chunk = row >>> SHIFT;
+            if (chunk == chunks.length) chunks = Arrays.copyOf(chunks, chunk * 2);
+            if (chunks[chunk] == null) chunks[chunk] = new long[CHUNK_SIZE];
+            chunks[chunk][row & MASK] = rs.getLong(columnIndex);
+            this.checkNull(rs, row);
+        }
+
+        long get(int row) {
+            return chunks[row >>> SHIFT][row & MASK];
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+
+        private double[][] chunks = new double[1][];
+
+        private DoubleColumn() {
+            super(Kind.DOUBLE);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            int chunk = row >>> SHIFT;
+            if (chunk == chunks.length) chunks = Arrays.copyOf(chunks, chunk * 2);
+            if (chunks[chunk] == null) chunks[chunk] = new double[CHUNK_SIZE];
+            chunks[chunk][row & MASK] = rs.getDouble(columnIndex);
+            this.checkNull(rs, row);
+        }
+
+        double get(int row) {
+            return chunks[row >>> SHIFT][row & MASK];
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+
+        private final BitSet values = new BitSet();
+
+        private BooleanColumn() {
+            super(Kind.BOOLEAN);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            if (rs.getBoolean(columnIndex)) values.set(row);
+            this.checkNull(rs, row);
+        }
+    }
+
+    private static class StringColumn extends Column {
+
+        private final IntColumn codes = new IntColumn(Kind.INT);
+        private final List<String> dictionary = new ArrayList<>();
+        private final HashMap<String, Integer> dictionaryIndex = new HashMap<>();
+
+        private StringColumn() {
+            super(Kind.STRING);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            String value = rs.getString(columnIndex);
+            if (value == null) {
+                codes.set(row, -1);
+                this.checkNull(rs, row);
+                return;
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndex.put(value, code);
+            }
+            codes.set(row, code);
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+
+        private Object[][] chunks = new Object[1][];
+
+        private ObjectColumn() {
+            super(Kind.OBJECT);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            int chunk = row >>> SHIFT;
+            if (chunk == chunks.length) chunks = Arrays.copyOf(chunks, chunk * 2);
+            if (chunks[chunk] == null) chunks[chunk] = new Object[CHUNK_SIZE];
+            chunks[chunk][row & MASK] = rs.getObject(columnIndex);
+            this.checkNull(rs, row);
+        }
+
+        Object get(int row) {
+            return chunks[row >>> SHIFT][row & MASK];
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package pe.mrodas.db.helper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Database specific setup of a statement that reads a large result in constant memory
+ * (forward only, read only, fetching rows from the server in blocks).
+ */
+@FunctionalInterface
+public interface Dialect {
+
+    /**
+     * Standard JDBC: the driver fetches fetchSize rows per round trip.
+     * PostgreSQL only honours it with autocommit disabled (ex: inside a transaction)
+     */
+    Dialect DEFAULT = (statement, fetchSize) -> statement.setFetchSize(fetchSize);
+    /**
+     * MySQL Connector/J ignores positive fetch sizes (unless useCursorFetch=true) and only
+     * streams row by row with Integer.MIN_VALUE. The connection can't run other statements
+     * until the result is fully read or closed
+     */
+    Dialect MYSQL = (statement, fetchSize) -> statement.setFetchSize(Integer.MIN_VALUE);
+
+    void configureStreaming(PreparedStatement statement, int fetchSize) throws SQLException;
+
+    /**
+     * @param url jdbc url
+     * @return {@link #MYSQL} for MySQL urls without useCursorFetch=true, {@link #DEFAULT} otherwise
+     */
+    static Dialect of(String url) {
+        if (url == null || !url.startsWith("jdbc:mysql:")) return DEFAULT;
+        return url.contains("useCursorFetch=true") ? DEFAULT : MYSQL;
+    }
+
+    static Dialect of(Connection connection) throws SQLException {
+        return Dialect.of(connection.getMetaData().getURL());
+    }
+
+    /**
+     * Prepares a forward only, read only statement configured by dialect (detected from the connection if null)
+     */
+    static PreparedStatement prepareStreaming(Connection connection, String sql, int fetchSize, Dialect dialect) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        (dialect == null ? Dialect.of(connection) : dialect).configureStreaming(statement, fetchSize);
+        return statement;
+    }
+}
@@ -9,31 +9,63 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * Expands a list into the parameters ":name0,:name1,..." of an IN operator.
+ * <p>
+ * In bucketed mode the list is padded up to the next power of two by repeating its last value,
+ * so lists of 5 to 8 values share the same SQL text (and the same cached template and statement).</p>
+ */
 public class InOperator<T> {
+    private static volatile boolean defaultBucketed;
     private String fields;
     private final Map<String, T> parameters;
 
     public InOperator(String name, List<T> list) {
-        this(name, list == null ? null : list.stream());
+        this(name, list, defaultBucketed);
+    }
+
+    public InOperator(String name, List<T> list, boolean bucketed) {
+        this(name, list == null ? null : list.stream(), bucketed);
     }
 
     public InOperator(String name, Stream<T> ids) {
+        this(name, ids, defaultBucketed);
+    }
+
+    public InOperator(String name, Stream<T> ids, boolean bucketed) {
         if (ids == null) parameters = null;
         else if (name == null) parameters = null;
         else {
             List<T> list = ids.filter(Objects::nonNull).collect(Collectors.toList());
             if (list.isEmpty()) parameters = null;
             else {
-                fields = IntStream.range(0, list.size())
+                int size = bucketed ? InOperator.getBucketSize(list.size()) : list.size();
+                fields = IntStream.range(0, size)
                         .mapToObj(i -> ":" + name + i)
                         .collect(Collectors.joining(","));
                 parameters = new HashMap<>();
-                for (int i = 0; i < list.size(); i++)
-                    parameters.put(name + i, list.get(i));
+                for (int i = 0; i < size; i++)
+                    parameters.put(name + i, list.get(Math.min(i, list.size() - 1)));
             }
         }
     }
 
+    /**
+     * @param size number of values
+     * @return the smallest power of two greater or equal than size
+     */
+    public static int getBucketSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Bucketed mode used by {@link #InOperator(String, List)} and {@link #InOperator(String, Stream)}
+     * (and so by SqlQuery.addParameter(String, List) and SqlUpdate.addFilter(String, List)). Default: false
+     */
+    public static void setDefaultBucketed(boolean bucketed) {
+        defaultBucketed = bucketed;
+    }
+
     public String getFields() {
         return fields;
     }
@@ -0,0 +1,36 @@
+package pe.mrodas.db.helper;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Walks the results of an executed statement (ex: a procedure returning several result sets) in order,
+ * one at a time: each ResultSet is closed before moving to the next one.
+ */
+public class MultipleResults {
+
+    private MultipleResults() {
+    }
+
+    /**
+     * @param statement executed statement
+     * @param handlers  handler of each result set, in order. Extra result sets are skipped
+     * @return number of result sets returned by the statement
+     */
+    public static int consume(Statement statement, List<? extends ThrowingConsumer<ResultSet>> handlers) throws Exception {
+        int index = 0;
+        while (true) {
+            ResultSet rs = statement.getResultSet();
+            if (rs != null) {
+                try {
+                    if (index < handlers.size()) handlers.get(index).accept(rs);
+                } finally {
+                    rs.close();
+                }
+                index++;
+            } else if (statement.getUpdateCount() == -1) return index;
+            statement.getMoreResults();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pe.mrodas.db.helper;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Sets a parameter value of type T in a statement. Registered in {@link ParameterBinders}
+ */
+@FunctionalInterface
+public interface ParameterBinder<T> {
+
+    void bind(PreparedStatement statement, int index, T value) throws SQLException;
+
+    /**
+     * Named parameter of a stored procedure. By default uses {@link CallableStatement#setObject(String, Object)}
+     */
+    default void bind(CallableStatement statement, String name, T value) throws SQLException {
+        statement.setObject(name, value);
+    }
+
+    @FunctionalInterface
+    interface ByName<T> {
+        void bind(CallableStatement statement, String name, T value) throws SQLException;
+    }
+
+    static <T> ParameterBinder<T> of(ParameterBinder<T> byIndex, ByName<T> byName) {
+        return new ParameterBinder<T>() {
+            @Override
+            public void bind(PreparedStatement statement, int index, T value) throws SQLException {
+                byIndex.bind(statement, index, value);
+            }
+
+            @Override
+            public void bind(CallableStatement statement, String name, T value) throws SQLException {
+                byName.bind(statement, name, value);
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package pe.mrodas.db.helper;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link ParameterBinder} by class, shared by SqlQuery, SqlInsert, SqlFunction and Procedure
+ * (and the legacy pe.mrodas.jdbc classes).
+ * <p>
+ * The binder of a class is resolved once (own class, then superclasses, then interfaces) and cached in a
+ * {@link ClassValue}. Unregistered types are bound with setObject.</p>
+ */
+public class ParameterBinders {
+
+    private static final Map<Class<?>, ParameterBinder<?>> registry = new ConcurrentHashMap<>();
+    private static volatile ClassValue<ParameterBinder<?>> resolved = ParameterBinders.newResolver();
+
+    static {
+        register(Integer.class, ParameterBinder.of((st, i, v) -> st.setInt(i, v), (st, n, v) -> st.setInt(n, v)));
+        register(Long.class, ParameterBinder.of((st, i, v) -> st.setLong(i, v), (st, n, v) -> st.setLong(n, v)));
+        register(Short.class, ParameterBinder.of((st, i, v) -> st.setShort(i, v), (st, n, v) -> st.setShort(n, v)));
+        register(Byte.class, ParameterBinder.of((st, i, v) -> st.setByte(i, v), (st, n, v) -> st.setByte(n, v)));
+        register(Double.class, ParameterBinder.of((st, i, v) -> st.setDouble(i, v), (st, n, v) -> st.setDouble(n, v)));
+        register(Float.class, ParameterBinder.of((st, i, v) -> st.setFloat(i, v), (st, n, v) -> st.setFloat(n, v)));
+        register(Boolean.class, ParameterBinder.of((st, i, v) -> st.setBoolean(i, v), (st, n, v) -> st.setBoolean(n, v)));
+        register(BigDecimal.class, ParameterBinder.of(PreparedStatement::setBigDecimal, CallableStatement::setBigDecimal));
+        register(BigInteger.class, ParameterBinder.of((st, i, v) -> st.setBigDecimal(i, new BigDecimal(v)),
+                (st, n, v) -> st.setBigDecimal(n, new BigDecimal(v))));
+        register(String.class, ParameterBinder.of(PreparedStatement::setString, CallableStatement::setString));
+        register(Character.class, ParameterBinder.of((st, i, v) -> st.setString(i, v.toString()),
+                (st, n, v) -> st.setString(n, v.toString())));
+        register(byte[].class, ParameterBinder.of(PreparedStatement::setBytes, CallableStatement::setBytes));
+        register(InputStream.class, ParameterBinder.of(PreparedStatement::setBlob, CallableStatement::setBlob));
+        register(Date.class, ParameterBinder.of((st, i, v) -> st.setTimestamp(i, new Timestamp(v.getTime())),
+                (st, n, v) -> st.setTimestamp(n, new Timestamp(v.getTime()))));
+        register(java.sql.Date.class, ParameterBinder.of(PreparedStatement::setDate, CallableStatement::setDate));
+        register(Time.class, ParameterBinder.of(PreparedStatement::setTime, CallableStatement::setTime));
+        register(Timestamp.class, ParameterBinder.of(PreparedStatement::setTimestamp, CallableStatement::setTimestamp));
+        register(LocalDate.class, ParameterBinder.of((st, i, v) -> st.setDate(i, java.sql.Date.valueOf(v)),
+                (st, n, v) -> st.setDate(n, java.sql.Date.valueOf(v))));
+        register(LocalTime.class, ParameterBinder.of((st, i, v) -> st.setTime(i, Time.valueOf(v)),
+                (st, n, v) -> st.setTime(n, Time.valueOf(v))));
+        register(LocalDateTime.class, ParameterBinder.of((st, i, v) -> st.setTimestamp(i, Timestamp.valueOf(v)),
+                (st, n, v) -> st.setTimestamp(n, Timestamp.valueOf(v))));
+        register(UUID.class, ParameterBinder.of((st, i, v) -> st.setString(i, v.toString()),
+                (st, n, v) -> st.setString(n, v.toString())));
+        register(Enum.class, ParameterBinder.of((st, i, v) -> st.setString(i, v.name()),
+                (st, n, v) -> st.setString(n, v.name())));
+        register(Object.class, ParameterBinder.of(PreparedStatement::setObject, CallableStatement::setObject));
+    }
+
+    private static ClassValue<ParameterBinder<?>> newResolver() {
+        return new ClassValue<ParameterBinder<?>>() {
+            @Override
+            protected ParameterBinder<?> computeValue(Class<?> type) {
+                return ParameterBinders.resolve(type);
+            }
+        };
+    }
+
+    private static ParameterBinder<?> resolve(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            ParameterBinder<?> binder = registry.get(current);
+            if (binder != null && current != Object.class) return binder;
+            for (Class<?> iface : current.getInterfaces()) {
+                binder = registry.get(iface);
+                if (binder != null) return binder;
+            }
+        }
+        return registry.get(Object.class);
+    }
+
+    /**
+     * Registers (or replaces) the binder of a class. It also applies to its subclasses
+     * (or implementations, for an interface) without a binder of their own.
+     *
+     * @param type   class of the values
+     * @param binder binder of the values
+     */
+    public static <T> void register(Class<T> type, ParameterBinder<? super T> binder) {
+        registry.put(type, binder);
+        resolved = ParameterBinders.newResolver();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ParameterBinder<T> get(Class<T> type) {
+        return (ParameterBinder<T>) resolved.get(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+        ((ParameterBinder<Object>) resolved.get(value.getClass())).bind(statement, index, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void bind(CallableStatement statement, String name, Object value) throws SQLException {
+        ((ParameterBinder<Object>) resolved.get(value.getClass())).bind(statement, name, value);
+    }
+}
@@ -0,0 +1,126 @@
+package pe.mrodas.db.helper;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterator fed by a producer thread through a bounded queue: the producer reads the source ahead of the
+ * consumer and waits while the queue is full (back-pressure), so at most capacity items are buffered.
+ * <p>
+ * Errors of the source (and the interruption of the producer) are thrown by the consumer ({@link #hasNext()}).
+ * {@link #close()} stops the producer after the item it is reading.</p>
+ */
+public class PrefetchIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object END = new Object(), NULL = new Object();
+    private final BlockingQueue<Object> queue;
+    private volatile boolean closed;
+    private volatile Failure stopped;
+    private Object next;
+
+    /**
+     * Reads the source in a new daemon thread
+     *
+     * @see #PrefetchIterator(Iterator, int, Executor, Runnable)
+     */
+    public PrefetchIterator(Iterator<? extends T> source, int capacity, Runnable onDone) {
+        this(source, capacity, runnable -> {
+            Thread thread = new Thread(runnable, "simple-jdbc-prefetch");
+            thread.setDaemon(true);
+            thread.start();
+        }, onDone);
+    }
+
+    /**
+     * @param source   iterator read by the producer thread only
+     * @param capacity max items waiting for the consumer
+     * @param executor runs the producer
+     * @param onDone   called by the producer when it stops (ex: closes the source). Nullable
+     */
+    public PrefetchIterator(Iterator<? extends T> source, int capacity, Executor executor, Runnable onDone) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        executor.execute(() -> {
+            try {
+                while (!closed && source.hasNext()) {
+                    T item = source.next();
+                    if (!this.put(item == null ? NULL : item)) return;
+                }
+                this.put(END);
+            } catch (Throwable e) {
+                this.put(new Failure(e));
+            } finally {
+                if (onDone != null) onDone.run();
+            }
+        });
+    }
+
+    /**
+     * @return false if the iterator was closed or the producer interrupted (nothing else is put after that)
+     */
+    private boolean put(Object item) {
+        try {
+            while (!closed) if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) return true;
+        } catch (InterruptedException e) {
+            stopped = new Failure(new IllegalStateException("Producer interrupted", e));
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            if (closed) return false;
+            try {
+                while (next == null) {
+                    next = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (next == null && stopped != null) {
+                        next = queue.poll();
+                        if (next == null) next = stopped;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.close();
+                throw new IllegalStateException("Interrupted while waiting for the producer", e);
+            }
+        }
+        if (next instanceof Failure) {
+            Throwable error = ((Failure) next).error;
+            this.close();
+            if (error instanceof RuntimeException) throw (RuntimeException) error;
+            if (error instanceof Error) throw (Error) error;
+            throw new IllegalStateException(error);
+        }
+        return next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        Object item = next;
+        next = null;
+        return item == NULL ? null : (T) item;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        next = END;
+        queue.clear();
+    }
+
+    private static class Failure {
+
+        private final Throwable error;
+
+        private Failure(Throwable error) {
+            this.error = error;
+        }
+    }
+}
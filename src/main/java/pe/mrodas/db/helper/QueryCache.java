@@ -0,0 +1,273 @@
+package pe.mrodas.db.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared read cache of query results (opt-in per query, see {@code SqlQuery.setCacheTtl}).
+ * <p>
+ * Entries are keyed by the jdbc SQL, the bound values (in "?" order) and the mapper key (the mapped
+ * Class, or a key given by the caller), expire after their TTL and are evicted in approximate LRU order when the
+ * total weight (rows: the size of a cached List, 1 otherwise) exceeds {@link #getMaxWeight()}.
+ * Reads take no lock: only the puts that overflow the max weight synchronize, to evict.
+ * Writes invalidate the entries that read the written tables: SqlInsert, SqlUpdate and SqlQuery.execute()
+ * do it automatically; statements without a detected written table (SELECT, SET, CALL, DDL) invalidate nothing,
+ * unless {@link #setClearOnUnknownWrite(boolean)} is enabled.
+ * Queries whose read tables can't be fully detected (subqueries, WITH) are not cached.</p>
+ * Cached results are shared: they must not be modified.
+ */
+public final class QueryCache {
+
+    private static final String KEYWORD = "(?:WHERE|JOIN|INNER|LEFT|RIGHT|FULL|CROSS|NATURAL|OUTER|ON|USING|GROUP|ORDER|HAVING|LIMIT|UNION|FOR)\\b";
+    private static final String TABLE = "[`\"\\[\\]\\w.]+(?:\\s+(?:AS\\s+)?(?!" + KEYWORD + ")\\w+)?";
+    private static final Pattern READ_TABLES = Pattern.compile("\\b(?:FROM|JOIN)\\s+(" + TABLE + "(?:\\s*,\\s*" + TABLE + ")*)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern READ_UNKNOWN = Pattern.compile("^\\s*WITH\\b|\\b(?:FROM|JOIN)\\s*\\(|\\(\\s*SELECT\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WRITE_TABLES = Pattern.compile(
+            "\\b(?:INSERT\\s+(?:IGNORE\\s+)?INTO|REPLACE\\s+INTO|(?<!\\bFOR\\s)UPDATE|DELETE\\s+FROM|TRUNCATE(?:\\s+TABLE)?|MERGE\\s+INTO)\\s+([`\"\\[\\]\\w.]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern UNKNOWN_WRITE = Pattern.compile("^\\s*\\{?\\s*(?:CALL|EXEC|EXECUTE|CREATE|ALTER|DROP|RENAME)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Map<Key, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final Object EVICTION = new Object();
+    private static final AtomicLong weight = new AtomicLong(), generation = new AtomicLong(), clock = new AtomicLong();
+    private static final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder(), invalidations = new LongAdder();
+    private static volatile long maxWeight = 100_000;
+    private static volatile boolean clearOnUnknownWrite;
+
+    private QueryCache() {
+    }
+
+    /**
+     * @param sql       jdbc SQL (with "?")
+     * @param values    bound values, in "?" order
+     * @param mapperKey identifies the mapper of the result: the mapped Class or a key chosen by the caller
+     *                  (compared with equals). Not a lambda: the lambdas of a call site share their class
+     * @param list      true if the result is a List
+     */
+    public static Key key(String sql, Object[] values, Object mapperKey, boolean list) {
+        return new Key(sql, values, mapperKey, list, generation.get());
+    }
+
+    /**
+     * @return the cached result, null if missing or expired
+     */
+    public static Object get(Key key) {
+        Entry entry = ENTRIES.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            entry.lastAccess = clock.get();
+            hits.increment();
+            return entry.value;
+        }
+        if (entry != null && QueryCache.remove(key, entry)) evictions.increment();
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * The value is not stored if an invalidation happened after the key was created (the value may be stale)
+     * or if the tables read by the query can't be detected
+     *
+     * @param ttlMillis time to live (ms)
+     */
+    public static void put(Key key, Object value, long ttlMillis) {
+        if (value == null || ttlMillis <= 0) return;
+        String[] tables = QueryCache.getReadTables(key.sql);
+        if (tables == null) return;
+        long entryWeight = value instanceof List ? Math.max(((List<?>) value).size(), 1) : 1;
+        if (entryWeight > maxWeight || key.generation != generation.get()) return;
+        Entry entry = new Entry(value, System.nanoTime() + ttlMillis * 1_000_000, entryWeight, tables);
+        entry.lastAccess = clock.incrementAndGet();
+        Entry previous = ENTRIES.put(key, entry);
+        weight.addAndGet(previous == null ? entryWeight : entryWeight - previous.weight);
+        // an invalidation may have run between the check and the put
+        if (key.generation != generation.get()) QueryCache.remove(key, entry);
+        if (weight.get() > maxWeight) QueryCache.evict();
+    }
+
+    /**
+     * Removes the least recently read entries until the weight is 90% of the max weight
+     * (so a full cache does not scan its entries on every put)
+     */
+    private static void evict() {
+        synchronized (EVICTION) {
+            long target = maxWeight - maxWeight / 10;
+            if (weight.get() <= maxWeight) return;
+            List<Map.Entry<Key, Entry>> entries = new ArrayList<>(ENTRIES.entrySet());
+            entries.sort(Comparator.comparingLong(item -> item.getValue().lastAccess));
+            for (Map.Entry<Key, Entry> item : entries) {
+                if (weight.get() <= target) break;
+                if (QueryCache.remove(item.getKey(), item.getValue())) evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes the entries that read table
+     */
+    public static void invalidate(String table) {
+        String name = QueryCache.normalizeTable(table);
+        generation.incrementAndGet();
+        ENTRIES.forEach((key, entry) -> {
+            if (Arrays.asList(entry.tables).contains(name) && QueryCache.remove(key, entry)) invalidations.increment();
+        });
+    }
+
+    /**
+     * Removes the entries that read a table written by sql. Statements without a detected written table
+     * invalidate nothing; a CALL/EXEC or DDL clears the cache only if {@link #setClearOnUnknownWrite(boolean)}
+     */
+    public static void invalidateFor(String sql) {
+        String[] tables = QueryCache.getTables(sql, WRITE_TABLES);
+        if (tables.length > 0) for (String table : tables) QueryCache.invalidate(table);
+        else if (clearOnUnknownWrite && UNKNOWN_WRITE.matcher(sql).find()) QueryCache.clear();
+    }
+
+    /**
+     * @param clearOnUnknownWrite true: a CALL/EXEC or DDL (whose written tables can't be detected) clears
+     *                            the cache (def: false, the caller invalidates with {@link #invalidate(String)})
+     */
+    public static void setClearOnUnknownWrite(boolean clearOnUnknownWrite) {
+        QueryCache.clearOnUnknownWrite = clearOnUnknownWrite;
+    }
+
+    private static boolean remove(Key key, Entry entry) {
+        if (!ENTRIES.remove(key, entry)) return false;
+        weight.addAndGet(-entry.weight);
+        return true;
+    }
+
+    /**
+     * @return tables of the FROM lists and JOINs, null if sql has subqueries or WITH
+     */
+    static String[] getReadTables(String sql) {
+        if (READ_UNKNOWN.matcher(sql).find()) return null;
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = READ_TABLES.matcher(sql);
+        while (matcher.find())
+            for (String item : matcher.group(1).split(",")) {
+                String table = QueryCache.normalizeTable(item.trim().split("\\s+")[0]);
+                if (!table.isEmpty() && !tables.contains(table)) tables.add(table);
+            }
+        return tables.toArray(new String[0]);
+    }
+
+    private static String[] getTables(String sql, Pattern pattern) {
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = pattern.matcher(sql);
+        while (matcher.find()) {
+            String table = QueryCache.normalizeTable(matcher.group(1));
+            if (!table.isEmpty() && !tables.contains(table)) tables.add(table);
+        }
+        return tables.toArray(new String[0]);
+    }
+
+    private static String normalizeTable(String table) {
+        String name = table.replaceAll("[`\"\\[\\]]", "");
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    public static void clear() {
+        generation.incrementAndGet();
+        ENTRIES.forEach((key, entry) -> {
+            if (QueryCache.remove(key, entry)) invalidations.increment();
+        });
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return entries removed by LRU or expiration
+     */
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return entries removed by writes to their tables (or {@link #clear()})
+     */
+    public static long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public static int getSize() {
+        return ENTRIES.size();
+    }
+
+    public static long getWeight() {
+        return weight.get();
+    }
+
+    public static long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @param maxWeight total rows kept in the cache (def: 100000)
+     */
+    public static void setMaxWeight(long maxWeight) {
+        QueryCache.maxWeight = maxWeight;
+        if (weight.get() > maxWeight) QueryCache.evict();
+    }
+
+    public static final class Key {
+
+        private final String sql;
+        private final Object[] values;
+        private final Object mapper;
+        private final boolean list;
+        private final int hash;
+        private final long generation;
+
+        private Key(String sql, Object[] values, Object mapper, boolean list, long generation) {
+            this.generation = generation;
+            this.sql = sql;
+            this.values = values;
+            this.mapper = mapper;
+            this.list = list;
+            int hash = 31 * (31 * sql.hashCode() + Arrays.deepHashCode(values)) + (mapper == null ? 0 : mapper.hashCode());
+            this.hash = list ? ~hash : hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key key = (Key) obj;
+            return hash == key.hash && list == key.list && Objects.equals(mapper, key.mapper) && sql.equals(key.sql) && Arrays.deepEquals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class Entry {
+
+        private final Object value;
+        private final long expiresAt, weight;
+        private final String[] tables;
+        private volatile long lastAccess;
+
+        private Entry(Object value, long expiresAt, long weight, String[] tables) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+            this.tables = tables;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package pe.mrodas.db.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over the rows of an open ResultSet. Holds the ResultSet (and its connection) until
+ * the last row is read or {@link #close()} is called, whichever happens first.
+ * <p>
+ * Errors while fetching or mapping a row close the iterator and are thrown as {@link UncheckedSQLException}.</p>
+ */
+public class ResultIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final ResultSet rs;
+    private final ThrowingFunction<ResultSet, T> mapper;
+    private final Runnable onClose;
+    private final UnaryOperator<SQLException> exceptionBuilder;
+    private boolean fetched, hasNext, closed;
+
+    /**
+     * @param rs               open ResultSet, positioned before the first row
+     * @param mapper           maps the current row (must not call rs.next())
+     * @param onClose          releases the statement/connection. Called once
+     * @param exceptionBuilder adds context to the SQL errors
+     */
+    public ResultIterator(ResultSet rs, ThrowingFunction<ResultSet, T> mapper, Runnable onClose, UnaryOperator<SQLException> exceptionBuilder) {
+        this.rs = rs;
+        this.mapper = mapper;
+        this.onClose = onClose;
+        this.exceptionBuilder = exceptionBuilder;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) return false;
+        if (!fetched) {
+            try {
+                hasNext = rs.next();
+            } catch (SQLException e) {
+                throw this.fail(e);
+            }
+            fetched = true;
+            if (!hasNext) this.close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        fetched = false;
+        try {
+            return mapper.apply(rs);
+        } catch (SQLException e) {
+            throw this.fail(e);
+        } catch (RuntimeException e) {
+            this.close();
+            throw e;
+        } catch (Exception e) {
+            this.close();
+            throw new UncheckedSQLException(new SQLException("Mapping Error: " + e.getMessage(), e));
+        }
+    }
+
+    private UncheckedSQLException fail(SQLException e) {
+        this.close();
+        return new UncheckedSQLException(exceptionBuilder.apply(e));
+    }
+
+    /**
+     * @return a sequential Stream over the remaining rows; closing the Stream closes this iterator
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            rs.close();
+        } catch (SQLException ignored) {
+        } finally {
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package pe.mrodas.db.helper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Flyweight view of the current row of a ResultSet: the same object is reused for every row
+ * (see {@link SqlStatement#forEachRow(RowHandler)}), so it must not be kept after the callback returns.
+ * Columns are 1 based, as in JDBC; {@link #indexOf(String)} resolves a label once per result.
+ */
+public final class RowView {
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void accept(RowView row) throws Exception;
+    }
+
+    private final ResultSet rs;
+    private HashMap<String, Integer> indexes;
+    private long rowNumber;
+
+    RowView(ResultSet rs) {
+        this.rs = rs;
+    }
+
+    boolean next() throws SQLException {
+        if (!rs.next()) return false;
+        rowNumber++;
+        return true;
+    }
+
+    /**
+     * @return index of the column (case insensitive)
+     * @throws SQLException if the label is not in the result
+     */
+    public int indexOf(String label) throws SQLException {
+        if (indexes == null) {
+            ResultSetMetaData rsmd = rs.getMetaData();
+            indexes = new HashMap<>();
+            for (int i = rsmd.getColumnCount(); i > 0; i--) {
+                indexes.put(rsmd.getColumnLabel(i), i);
+                indexes.put(rsmd.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+        Integer index = indexes.get(label);
+        if (index == null) index = indexes.get(label.toLowerCase(Locale.ROOT));
+        if (index == null) throw new SQLException(String.format("Column '%s' not found!", label));
+        return index;
+    }
+
+    /**
+     * @return number of the current row (1 based)
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * @return true if the last value read was SQL NULL
+     */
+    public boolean wasNull() throws SQLException {
+        return rs.wasNull();
+    }
+
+    public int getInt(int column) throws SQLException {
+        return rs.getInt(column);
+    }
+
+    public long getLong(int column) throws SQLException {
+        return rs.getLong(column);
+    }
+
+    public double getDouble(int column) throws SQLException {
+        return rs.getDouble(column);
+    }
+
+    public boolean getBoolean(int column) throws SQLException {
+        return rs.getBoolean(column);
+    }
+
+    public String getString(int column) throws SQLException {
+        return rs.getString(column);
+    }
+
+    public BigDecimal getBigDecimal(int column) throws SQLException {
+        return rs.getBigDecimal(column);
+    }
+
+    public Timestamp getTimestamp(int column) throws SQLException {
+        return rs.getTimestamp(column);
+    }
+
+    public Object getObject(int column) throws SQLException {
+        return rs.getObject(column);
+    }
+}
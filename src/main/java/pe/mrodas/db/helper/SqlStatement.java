@@ -5,10 +5,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import pe.mrodas.db.Connector;
 
@@ -16,6 +18,8 @@ public abstract class SqlStatement<T> {
 
     private Connection connection;
     private Autoclose autoclose;
+    private int fetchSize;
+    private Dialect dialect;
 
     public SqlStatement(Connection connection, Autoclose autoclose) {
         this.connection = connection;
@@ -31,6 +35,46 @@ public abstract class SqlStatement<T> {
         return connection;
     }
 
+    /**
+     * @return the connection given in the constructor (or already acquired), null otherwise
+     */
+    protected Connection getCurrentConnection() {
+        return connection;
+    }
+
+    /**
+     * Reads the result in constant memory: the statement is forward only / read only and the rows
+     * are fetched from the server in blocks (see {@link Dialect}). Use it with
+     * {@link #iterate(ThrowingFunction)} or {@link #executeForStream(ThrowingFunction)} for large scans.
+     * Streaming statements are not kept in the pool statement cache.
+     *
+     * @param fetchSize rows per round trip (0: driver default, no streaming)
+     * @return this statement
+     */
+    public SqlStatement<T> setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * @param dialect overrides the dialect detected from the connection url
+     * @return this statement
+     */
+    public SqlStatement<T> setDialect(Dialect dialect) {
+        this.dialect = dialect;
+        return this;
+    }
+
+    /**
+     * Prepares sql on the current connection, in streaming mode if a fetch size was set
+     */
+    protected PreparedStatement prepareStatement(String sql, GeneratedKeys generatedKeys) throws IOException, SQLException {
+        Connection connection = this.getConnection();
+        if (generatedKeys == GeneratedKeys.RETURN) return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        if (fetchSize > 0) return Dialect.prepareStreaming(connection, sql, fetchSize, dialect);
+        return connection.prepareStatement(sql);
+    }
+
     protected abstract SQLException buildCallableException(SQLException e);
 
     protected abstract PreparedStatement executeStatement() throws IOException, SQLException;
@@ -40,6 +84,8 @@ public abstract class SqlStatement<T> {
             return callable.call();
         } catch (SQLException e) {
             throw this.buildCallableException(e);
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             throw new IOException("Mapping Error: " + e.getMessage(), e);
         } finally {
@@ -52,6 +98,8 @@ public abstract class SqlStatement<T> {
             return callable.call();
         } catch (SQLException e) {
             throw this.buildCallableException(e);
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             throw new IOException("Mapping Error: " + e.getMessage(), e);
         } finally {
@@ -61,25 +109,24 @@ public abstract class SqlStatement<T> {
 
     public T execute(Supplier<T> objGenerator, ThrowingBiConsumer<T, ResultSet> mapper) throws IOException, SQLException {
         T obj = objGenerator.get();
-        PreparedStatement statement = this.executeStatement();
-        ResultSet rs = statement.getResultSet();
         return this.run(() -> {
+            ResultSet rs = this.executeStatement().getResultSet();
             if (rs.next()) mapper.accept(obj, rs);
             return obj;
         });
     }
 
     public T execute(ThrowingBiFunction<PreparedStatement, ResultSet, T> executor) throws IOException, SQLException {
-        PreparedStatement statement = this.executeStatement();
-        ResultSet rs = statement.getResultSet();
-        return this.run(() -> executor.apply(statement, rs));
+        return this.run(() -> {
+            PreparedStatement statement = this.executeStatement();
+            return executor.apply(statement, statement.getResultSet());
+        });
     }
 
     public List<T> executeForList(Supplier<T> objGenerator, ThrowingBiConsumer<T, ResultSet> mapper) throws IOException, SQLException {
         List<T> list = new ArrayList<>();
-        PreparedStatement statement = this.executeStatement();
-        ResultSet rs = statement.getResultSet();
         return this.runForList(() -> {
+            ResultSet rs = this.executeStatement().getResultSet();
             while (rs.next()) {
                 T obj = objGenerator.get();
                 mapper.accept(obj, rs);
@@ -90,13 +137,124 @@ public abstract class SqlStatement<T> {
     }
 
     public List<T> executeForList(ThrowingBiFunction<PreparedStatement, ResultSet, List<T>> executor) throws IOException, SQLException {
-        PreparedStatement statement = this.executeStatement();
-        ResultSet rs = statement.getResultSet();
-        return this.runForList(() -> executor.apply(statement, rs));
+        return this.runForList(() -> {
+            PreparedStatement statement = this.executeStatement();
+            return executor.apply(statement, statement.getResultSet());
+        });
+    }
+
+    /**
+     * Maps the first row with {@link BeanMapper} (column labels matched with setters or fields of type)
+     *
+     * @return null if there are no rows
+     */
+    public T execute(Class<T> type) throws IOException, SQLException {
+        return this.execute((statement, rs) -> rs.next() ? BeanMapper.of(type, rs.getMetaData()).map(rs) : null);
+    }
+
+    /**
+     * Maps every row with {@link BeanMapper} (column labels matched with setters or fields of type)
+     */
+    public List<T> executeForList(Class<T> type) throws IOException, SQLException {
+        return this.executeForList((statement, rs) -> {
+            BeanMapper<T> mapper = BeanMapper.of(type, rs.getMetaData());
+            List<T> list = new ArrayList<>();
+            while (rs.next()) list.add(mapper.map(rs));
+            return list;
+        });
+    }
+
+    /**
+     * Reads the whole result into typed column vectors (see {@link ColumnarResult}) instead of one object per row
+     */
+    public ColumnarResult executeForColumns() throws IOException, SQLException {
+        try {
+            return ColumnarResult.read(this.executeStatement().getResultSet());
+        } catch (SQLException e) {
+            throw this.buildCallableException(e);
+        } finally {
+            this.close();
+        }
+    }
+
+    /**
+     * Calls handler once per row with the same {@link RowView}: no object is created per row.
+     * Useful to sum, count or copy rows elsewhere
+     *
+     * @return number of rows read
+     */
+    public long forEachRow(RowView.RowHandler handler) throws IOException, SQLException {
+        try {
+            RowView row = new RowView(this.executeStatement().getResultSet());
+            while (row.next()) handler.accept(row);
+            return row.getRowNumber();
+        } catch (SQLException e) {
+            throw this.buildCallableException(e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Mapping Error: " + e.getMessage(), e);
+        } finally {
+            this.close();
+        }
+    }
+
+    private ResultIterator<T> open(ThrowingFunction<ResultSet, ThrowingFunction<ResultSet, T>> mapperFactory) throws IOException, SQLException {
+        try {
+            ResultSet rs = this.executeStatement().getResultSet();
+            return new ResultIterator<>(rs, mapperFactory.apply(rs), this::close, this::buildCallableException);
+        } catch (SQLException e) {
+            this.close();
+            throw this.buildCallableException(e);
+        } catch (IOException | RuntimeException e) {
+            this.close();
+            throw e;
+        } catch (Exception e) {
+            this.close();
+            throw new IOException("Mapping Error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes the query and returns a lazy iterator: rows are fetched and mapped on demand.
+     * The connection is held until the iterator is exhausted or closed (use try-with-resources)
+     *
+     * @param mapper maps the current row (must not call rs.next())
+     */
+    public ResultIterator<T> iterate(ThrowingFunction<ResultSet, T> mapper) throws IOException, SQLException {
+        return this.open(rs -> mapper);
+    }
+
+    public ResultIterator<T> iterate(Supplier<T> objGenerator, ThrowingBiConsumer<T, ResultSet> mapper) throws IOException, SQLException {
+        return this.open(rs -> row -> {
+            T obj = objGenerator.get();
+            mapper.accept(obj, row);
+            return obj;
+        });
+    }
+
+    public ResultIterator<T> iterate(Class<T> type) throws IOException, SQLException {
+        return this.open(rs -> BeanMapper.of(type, rs.getMetaData())::map);
+    }
+
+    /**
+     * Lazy version of {@link #executeForList(Supplier, ThrowingBiConsumer)}. The Stream must be closed
+     * (try-with-resources) unless it is fully consumed. SQL errors are thrown as {@link UncheckedSQLException}
+     */
+    public Stream<T> executeForStream(Supplier<T> objGenerator, ThrowingBiConsumer<T, ResultSet> mapper) throws IOException, SQLException {
+        return this.iterate(objGenerator, mapper).stream();
+    }
+
+    public Stream<T> executeForStream(ThrowingFunction<ResultSet, T> mapper) throws IOException, SQLException {
+        return this.iterate(mapper).stream();
+    }
+
+    public Stream<T> executeForStream(Class<T> type) throws IOException, SQLException {
+        return this.iterate(type).stream();
     }
 
     protected void close() {
-        if (this.autoclose == Autoclose.YES) try {
+        if (this.autoclose == Autoclose.YES && connection != null) try {
             connection.close();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,173 @@
+package pe.mrodas.db.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed form of a query with named parameters (":parameter").
+ * Immutable: shared by every execution of the same SQL text through {@link SqlTemplateCache}
+ * <p>
+ * The query is tokenized in a single pass. Text inside string literals ('...'), quoted identifiers
+ * ("..." and `...`) and comments (-- ... and /* ... *&#47;) is copied as is, as well as
+ * "::" casts and ":=" assignments.</p>
+ */
+public final class SqlTemplate {
+
+    private final String sql, jdbcSql;
+    private final List<String> parameterNames, names;
+    private final int[] slotIndexes, starts, ends;
+
+    private SqlTemplate(String sql, String jdbcSql, List<String> parameterNames, int[] starts, int[] ends) {
+        this.sql = sql;
+        this.jdbcSql = jdbcSql;
+        this.parameterNames = Collections.unmodifiableList(parameterNames);
+        this.starts = starts;
+        this.ends = ends;
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> indexes = new HashMap<>();
+        this.slotIndexes = new int[parameterNames.size()];
+        for (int slot = 0; slot < slotIndexes.length; slot++) {
+            String name = parameterNames.get(slot);
+            Integer index = indexes.get(name);
+            if (index == null) {
+                index = names.size();
+                indexes.put(name, index);
+                names.add(name);
+            }
+            slotIndexes[slot] = index;
+        }
+        this.names = Collections.unmodifiableList(names);
+    }
+
+    static SqlTemplate parse(String sql) {
+        int length = sql.length();
+        StringBuilder jdbcSql = new StringBuilder(length);
+        List<String> parameterNames = new ArrayList<>();
+        int[] starts = new int[8], ends = new int[8];
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            int end;
+            if (c == '\'' || c == '"' || c == '`') end = SqlTemplate.skipQuoted(sql, i, c);
+            else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') end = SqlTemplate.skipLine(sql, i);
+            else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') end = SqlTemplate.skipBlock(sql, i);
+            else if (c == ':' && i + 1 < length && sql.charAt(i + 1) == ':') end = SqlTemplate.skipCast(sql, i);
+            else if (c == ':' && i + 1 < length && SqlTemplate.isNameStart(sql.charAt(i + 1))) {
+                end = i + 2;
+                while (end < length && SqlTemplate.isNamePart(sql.charAt(end))) end++;
+                int slot = parameterNames.size();
+                if (slot == starts.length) {
+                    starts = Arrays.copyOf(starts, slot * 2);
+                    ends = Arrays.copyOf(ends, slot * 2);
+                }
+                starts[slot] = i;
+                ends[slot] = end;
+                parameterNames.add(sql.substring(i + 1, end));
+                jdbcSql.append('?');
+                i = end;
+                continue;
+            } else end = i + 1;
+            jdbcSql.append(sql, i, end);
+            i = end;
+        }
+        int total = parameterNames.size();
+        return new SqlTemplate(sql, jdbcSql.toString(), parameterNames,
+                Arrays.copyOf(starts, total), Arrays.copyOf(ends, total));
+    }
+
+    private static boolean isNameStart(char c) {
+        return c == '_' || Character.isLetter(c);
+    }
+
+    private static boolean isNamePart(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote == '\'') i += 2;
+            else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) i += 2;
+                else return i + 1;
+            } else i++;
+        }
+        return sql.length();
+    }
+
+    private static int skipLine(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    private static int skipBlock(String sql, int start) {
+        int end = sql.indexOf("*/", start + 2);
+        return end < 0 ? sql.length() : end + 2;
+    }
+
+    private static int skipCast(String sql, int start) {
+        int end = start + 2;
+        while (end < sql.length() && SqlTemplate.isNamePart(sql.charAt(end))) end++;
+        return end;
+    }
+
+    /**
+     * Replaces each ":name" parameter present in the map with its text. Ex: ":ids" -> ":ids0,:ids1"
+     *
+     * @param replacements text by parameter name
+     * @return the new query (still with named parameters)
+     */
+    public String expand(Map<String, String> replacements) {
+        StringBuilder builder = new StringBuilder(sql.length() + 16 * replacements.size());
+        int last = 0;
+        for (int slot = 0; slot < starts.length; slot++) {
+            String replacement = replacements.get(parameterNames.get(slot));
+            if (replacement == null) continue;
+            builder.append(sql, last, starts[slot]).append(replacement);
+            last = ends[slot];
+        }
+        return builder.append(sql, last, sql.length()).toString();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return query with each named parameter replaced by "?"
+     */
+    public String getJdbcSql() {
+        return jdbcSql;
+    }
+
+    /**
+     * @return parameter name of each "?" slot, in order (a name appears once per occurrence)
+     */
+    public List<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * @return distinct parameter names, in order of first occurrence
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @param slot position of the "?" (0 based)
+     * @return index of its parameter in {@link #getNames()}
+     */
+    public int getNameIndex(int slot) {
+        return slotIndexes[slot];
+    }
+
+    public int getTotalSlots() {
+        return slotIndexes.length;
+    }
+}
@@ -0,0 +1,66 @@
+package pe.mrodas.db.helper;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cache of parsed queries keyed by the raw SQL text.
+ * When the cache is full, arbitrary entries are evicted to stay under {@link #getMaxSize()}.
+ */
+public class SqlTemplateCache {
+
+    private static final ConcurrentHashMap<String, SqlTemplate> cache = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder(), misses = new LongAdder();
+    private static volatile int maxSize = 1024;
+
+    public static SqlTemplate get(String sql) {
+        SqlTemplate template = cache.get(sql);
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+        misses.increment();
+        template = SqlTemplate.parse(sql);
+        if (maxSize <= 0) return template;
+        if (cache.size() >= maxSize) {
+            Iterator<String> iterator = cache.keySet().iterator();
+            while (cache.size() >= maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        SqlTemplate previous = cache.putIfAbsent(sql, template);
+        return previous == null ? template : previous;
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static int getSize() {
+        return cache.size();
+    }
+
+    public static int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize maximum number of cached queries. 0 disables the cache
+     */
+    public static void setMaxSize(int maxSize) {
+        SqlTemplateCache.maxSize = maxSize;
+        if (maxSize <= 0) cache.clear();
+    }
+
+    public static void clear() {
+        cache.clear();
+        hits.reset();
+        misses.reset();
+    }
+}
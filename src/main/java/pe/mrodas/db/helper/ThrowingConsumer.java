@@ -0,0 +1,6 @@
+package pe.mrodas.db.helper;
+
+@FunctionalInterface
+public interface ThrowingConsumer<T> {
+    void accept(T t) throws Exception;
+}
@@ -0,0 +1,20 @@
+package pe.mrodas.db.helper;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps a SQLException thrown where checked exceptions are not allowed (ex: {@link ResultIterator}, Stream)
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
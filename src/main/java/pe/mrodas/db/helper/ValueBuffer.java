@@ -0,0 +1,204 @@
+package pe.mrodas.db.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Growable list of parameter values. int, long, double and boolean values are kept unboxed
+ * in a long[] and bound with setInt/setLong/setDouble/setBoolean; other values go through {@link ParameterBinders}.
+ */
+public class ValueBuffer {
+
+    private static final byte UNSET = 0, OBJECT = 1, INT = 2, LONG = 3, DOUBLE = 4, BOOLEAN = 5, NULL = 6;
+    private byte[] kinds;
+    private long[] primitives;
+    private Object[] objects;
+    private int size;
+
+    public ValueBuffer() {
+        this(8);
+    }
+
+    public ValueBuffer(int capacity) {
+        this.kinds = new byte[Math.max(capacity, 1)];
+    }
+
+    private int next() {
+        if (size == kinds.length) kinds = Arrays.copyOf(kinds, size * 2);
+        return size++;
+    }
+
+    private void setPrimitive(int index, byte kind, long value) {
+        this.ensureSize(index);
+        if (primitives == null) primitives = new long[kinds.length];
+        else if (primitives.length < kinds.length) primitives = Arrays.copyOf(primitives, kinds.length);
+        kinds[index] = kind;
+        primitives[index] = value;
+        if (objects != null && index < objects.length) objects[index] = null;
+    }
+
+    private void ensureSize(int index) {
+        if (index >= kinds.length) kinds = Arrays.copyOf(kinds, Math.max(index + 1, kinds.length * 2));
+        if (index >= size) size = index + 1;
+    }
+
+    public int add(Object value) {
+        int index = this.next();
+        this.set(index, value);
+        return index;
+    }
+
+    public int addInt(int value) {
+        int index = this.next();
+        this.setPrimitive(index, INT, value);
+        return index;
+    }
+
+    public int addLong(long value) {
+        int index = this.next();
+        this.setPrimitive(index, LONG, value);
+        return index;
+    }
+
+    public int addDouble(double value) {
+        int index = this.next();
+        this.setPrimitive(index, DOUBLE, Double.doubleToRawLongBits(value));
+        return index;
+    }
+
+    public int addBoolean(boolean value) {
+        int index = this.next();
+        this.setPrimitive(index, BOOLEAN, value ? 1 : 0);
+        return index;
+    }
+
+    /**
+     * SQL NULL (bound with setNull). Unlike add(null), the value counts as set
+     */
+    public int addNull() {
+        int index = this.next();
+        this.setPrimitive(index, NULL, 0);
+        return index;
+    }
+
+    /**
+     * Copies a value (keeping its type) from another buffer
+     */
+    public int add(ValueBuffer source, int sourceIndex) {
+        int index = this.next();
+        this.set(index, source, sourceIndex);
+        return index;
+    }
+
+    public void set(int index, Object value) {
+        this.ensureSize(index);
+        if (objects == null) objects = new Object[kinds.length];
+        else if (objects.length < kinds.length) objects = Arrays.copyOf(objects, kinds.length);
+        kinds[index] = value == null ? UNSET : OBJECT;
+        objects[index] = value;
+    }
+
+    public void setInt(int index, int value) {
+        this.setPrimitive(index, INT, value);
+    }
+
+    public void setLong(int index, long value) {
+        this.setPrimitive(index, LONG, value);
+    }
+
+    public void setDouble(int index, double value) {
+        this.setPrimitive(index, DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public void setBoolean(int index, boolean value) {
+        this.setPrimitive(index, BOOLEAN, value ? 1 : 0);
+    }
+
+    public void setNull(int index) {
+        this.setPrimitive(index, NULL, 0);
+    }
+
+    /**
+     * Like {@link #set(int, Object)}, but Integer, Long, Double and Boolean are kept unboxed and null is SQL NULL
+     */
+    public void setUnboxed(int index, Object value) {
+        if (value == null) this.setNull(index);
+        else if (value instanceof Integer) this.setInt(index, (Integer) value);
+        else if (value instanceof Long) this.setLong(index, (Long) value);
+        else if (value instanceof Double) this.setDouble(index, (Double) value);
+        else if (value instanceof Boolean) this.setBoolean(index, (Boolean) value);
+        else this.set(index, value);
+    }
+
+    public void set(int index, ValueBuffer source, int sourceIndex) {
+        byte kind = source.kinds[sourceIndex];
+        if (kind == OBJECT || kind == UNSET) this.set(index, kind == UNSET ? null : source.objects[sourceIndex]);
+        else this.setPrimitive(index, kind, source.primitives[sourceIndex]);
+    }
+
+    public boolean isSet(int index) {
+        return index < size && kinds[index] != UNSET;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(kinds, 0, size, UNSET);
+        if (objects != null) Arrays.fill(objects, 0, Math.min(size, objects.length), null);
+        size = 0;
+    }
+
+    /**
+     * @return the value at index (boxed if primitive), null if not set
+     */
+    public Object get(int index) {
+        switch (kinds[index]) {
+            case OBJECT:
+                return objects[index];
+            case INT:
+                return (int) primitives[index];
+            case LONG:
+                return primitives[index];
+            case DOUBLE:
+                return Double.longBitsToDouble(primitives[index]);
+            case BOOLEAN:
+                return primitives[index] != 0;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param statement      target statement
+     * @param parameterIndex position in the statement (1 based)
+     * @param index          position in this buffer
+     */
+    public void bind(PreparedStatement statement, int parameterIndex, int index) throws SQLException {
+        switch (kinds[index]) {
+            case INT:
+                statement.setInt(parameterIndex, (int) primitives[index]);
+                break;
+            case LONG:
+                statement.setLong(parameterIndex, primitives[index]);
+                break;
+            case DOUBLE:
+                statement.setDouble(parameterIndex, Double.longBitsToDouble(primitives[index]));
+                break;
+            case BOOLEAN:
+                statement.setBoolean(parameterIndex, primitives[index] != 0);
+                break;
+            case OBJECT:
+                ParameterBinders.bind(statement, parameterIndex, objects[index]);
+                break;
+            case NULL:
+                statement.setNull(parameterIndex, Types.NULL);
+                break;
+            default:
+                throw new SQLException(String.format("Parameter #%s value is not set!", parameterIndex));
+        }
+    }
+}
@@ -11,6 +11,8 @@ import java.util.stream.Stream;
 
 import com.fasterxml.uuid.Generators;
 
+import pe.mrodas.db.helper.InOperator;
+
 /**
  * Convenience class to handle IN operator in WHERE clause.
  * Designed to work with a list or stream of INTEGER ids.<br><br>
@@ -21,7 +23,9 @@ import com.fasterxml.uuid.Generators;
  * [...]}</code><br><code>{@code
  * inList.getParameters().forEach(query::addParameter);}</code><br><code>{@code
  * [...]query.execute...[...]
- * }</code>
+ * }</code><br><br>
+ * The default constructors use a random prefix for each list. For a stable SQL text use
+ * {@link #SqlInOperator(String, List, boolean)}: deterministic names and optional power of two buckets.
  *
  * @author Marco Rodas
  */
@@ -62,6 +66,20 @@ public class SqlInOperator<T> {
         }
     }
 
+    /**
+     * Deterministic parameters ":name0,:name1,...". If bucketed, the list is padded up to the next
+     * power of two repeating the last value, so the SQL text only changes between buckets.
+     *
+     * @param name     parameter prefix, unique in the query
+     * @param list     values, null elements are filtered
+     * @param bucketed pad the list to {@link InOperator#getBucketSize(int)}
+     */
+    public SqlInOperator(String name, List<T> list, boolean bucketed) {
+        InOperator<T> inOperator = new InOperator<>(name, list, bucketed);
+        fields = inOperator.getFields();
+        parameters = inOperator.isInvalid() ? null : inOperator.getParameters();
+    }
+
     @Override
     public String toString() {
         return String.format("(%s)", fields);
@@ -26,6 +26,8 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.TimeZone;
 
+import javax.sql.DataSource;
+
 /**
  * @author Marco Rodas
  */
@@ -33,16 +35,25 @@ public abstract class DBLayer {
 
     public static class Connector {
 
-        private static Connector instance;
+        private static volatile Connector instance;
         private static String[] connectionStringParts;
         private static String propertyFile;
+        private static DataSource initDataSource;
         private final String url;
         private final Properties dbInfo;
+        private final DataSource dataSource;
 
         private Connector() throws Exception {
             dbInfo = getDbProperties();
             url = dbInfo.getProperty("url");
             Class.forName(dbInfo.getProperty("driver"));
+            dataSource = null;
+        }
+
+        private Connector(DataSource dataSource) {
+            this.dbInfo = null;
+            this.url = null;
+            this.dataSource = dataSource;
         }
 
         private Properties getDbProperties() throws IOException {
@@ -79,6 +90,7 @@ public abstract class DBLayer {
          */
         public static void configure(String[] connectionStringParts) {
             instance = null;
+            initDataSource = null;
             propertyFile = null;
             Connector.connectionStringParts = connectionStringParts;
         }
@@ -130,10 +142,24 @@ public abstract class DBLayer {
          */
         public static void configureWithPropFile(String propertyFile) {
             instance = null;
+            initDataSource = null;
             connectionStringParts = null;
             Connector.propertyFile = propertyFile;
         }
 
+        /**
+         * Usa un DataSource externo (o el pool de {@link pe.mrodas.db.Connector#getDataSource()}).
+         * Todas las subclases de DBLayer y {@link Adapter#batch(Adapter.Batch)} obtienen sus conexiones de él.
+         *
+         * @param dataSource DataSource a usar
+         */
+        public static void configure(DataSource dataSource) {
+            instance = null;
+            propertyFile = null;
+            connectionStringParts = null;
+            initDataSource = dataSource;
+        }
+
         /**
          * Obtiene una conexión a la base de datos. <br>
          * Se define con el método configure() o configureWithPropFile()
@@ -143,11 +169,20 @@ public abstract class DBLayer {
          *                   se puede conectar
          */
         public Connection getConnection() throws Exception {
-            return DriverManager.getConnection(url, dbInfo);
+            return dataSource == null ? DriverManager.getConnection(url, dbInfo) : dataSource.getConnection();
         }
 
         public static Connector getInstance() throws Exception {
+            Connector connector = instance;
+            return connector == null ? createInstance() : connector;
+        }
+
+        private static synchronized Connector createInstance() throws Exception {
             if (instance == null) {
+                if (initDataSource != null) {
+                    instance = new Connector(initDataSource);
+                    return instance;
+                }
                 if (propertyFile == null && connectionStringParts == null) {
                     throw Adapter.getException("Configure con el método Connector.configure() o Connector.configureWithPropFile() (e:Connector no configurado)");
                 }
@@ -264,6 +299,9 @@ public abstract class DBLayer {
      */
     public static ResultSet getMoreResults(ResultSet rs) throws Exception {
         Statement statement = rs.getStatement();
-        return statement == null ? null : statement.getResultSet();
+        if (statement == null) return null;
+        while (!statement.getMoreResults())
+            if (statement.getUpdateCount() == -1) return null;
+        return statement.getResultSet();
     }
 }
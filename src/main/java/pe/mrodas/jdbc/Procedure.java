@@ -1,6 +1,5 @@
 package pe.mrodas.jdbc;
 
-import java.io.InputStream;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.JDBCType;
@@ -16,6 +15,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import pe.mrodas.db.helper.MultipleResults;
+import pe.mrodas.db.helper.ParameterBinders;
+import pe.mrodas.db.helper.ThrowingConsumer;
+
 
 /**
  * Uso: <font color="yellow"><code>{@code
@@ -99,6 +102,22 @@ public class Procedure<T> extends DBLayer {
         void execute(ResultSet rs, List<T> list) throws Exception;
     }
 
+    /**
+     * Lectura de uno de los ResultSet de {@link #call(OutReader, ResultReader...)}
+     */
+    public interface ResultReader {
+
+        void read(ResultSet rs) throws Exception;
+    }
+
+    /**
+     * Lectura de los parámetros OUT: <code>statement.get***(/parameterOutName/)</code>
+     */
+    public interface OutReader {
+
+        void read(CallableStatement statement) throws Exception;
+    }
+
     private String procedureName;
     private final HashMap<String, Map.Entry<JDBCType, Object>> parametersIN = new HashMap<>();
     private final HashMap<String, JDBCType> parametersOUT = new HashMap<>();
@@ -168,32 +187,10 @@ public class Procedure<T> extends DBLayer {
     }
 
     private void registerInParameter(CallableStatement statement, String name, Object value) throws Exception {
-        Class objClass = value.getClass();
-        if (objClass.isArray()) {
-            registerArrayParameter(statement, name, value);
-        } else if (objClass == Integer.class) {
-            statement.setInt(name, (Integer) value);
-        } else if (objClass == String.class) {
-            statement.setString(name, (String) value);
-        } else if (objClass == Boolean.class) {
-            statement.setBoolean(name, (Boolean) value);
-        } else if (objClass == Double.class) {
-            statement.setDouble(name, (Double) value);
-        } else if (objClass == Float.class) {
-            statement.setFloat(name, (Float) value);
-        } else if (value instanceof Temporal) {
-            super.setTemporal(statement, name, value, objClass);
-        } else if (objClass == InputStream.class) {
-            statement.setBlob(name, (InputStream) value);
-        }
-    }
-
-    private void registerArrayParameter(CallableStatement statement, String name, Object obj) throws Exception {
-        Class componentType = obj.getClass().getComponentType();
-        if (componentType != null && componentType.isPrimitive()) {
-            if (byte.class.isAssignableFrom(componentType)) {
-                statement.setBytes(name, (byte[]) obj);
-            }
+        if (value instanceof Temporal) {
+            super.setTemporal(statement, name, value, value.getClass());
+        } else {
+            ParameterBinders.bind(statement, name, value);
         }
     }
 
@@ -349,6 +346,31 @@ public class Procedure<T> extends DBLayer {
         }
     }
 
+    /**
+     * Ejecuta el procedure en un solo viaje y lee sus ResultSet en orden (cada uno se cierra antes
+     * de obtener el siguiente) y al final los parámetros OUT. Si<br>
+     * <code>autoCloseConnection == true</code> cierra la conexión (def: true)
+     *
+     * @param outReader lectura de los parámetros OUT (puede ser null)
+     * @param readers   lectura de cada ResultSet, en orden. Los ResultSet adicionales se ignoran
+     * @return Número de ResultSet devueltos por el procedure
+     * @throws Exception Si hay error al ejecutar
+     */
+    public int call(OutReader outReader, ResultReader... readers) throws Exception {
+        List<ThrowingConsumer<ResultSet>> handlers = new ArrayList<>();
+        for (ResultReader reader : readers) handlers.add(reader::read);
+        try {
+            CallableStatement statement = executeStatement();
+            int total = MultipleResults.consume(statement, handlers);
+            if (outReader != null) outReader.read(statement);
+            return total;
+        } catch (Exception e) {
+            throw Adapter.getException(e, whoIam());
+        } finally {
+            closeConnection();
+        }
+    }
+
     public static CallableStatement getStatement(ResultSet rs) throws Exception {
         Statement statement = rs.getStatement();
         return statement == null ? null : (CallableStatement) statement;
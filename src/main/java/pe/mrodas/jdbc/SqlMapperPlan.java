@@ -0,0 +1,118 @@
+package pe.mrodas.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Mapeo compilado de columnas a un objeto T. Se define una sola vez (puede ser static y compartirse entre hilos):
+ * <pre><code>
+ * static final SqlMapperPlan&lt;User&gt; PLAN = new SqlMapperPlan&lt;User&gt;()
+ *      .mapInt("id", User::setId)
+ *      .mapString("name", User::setName)
+ *      .map("created", User::setCreated, ResultSet::getTimestamp);
+ * </code></pre>
+ * Las etiquetas se resuelven a índices de columna una vez por ResultSet ({@link #bind(ResultSetMetaData)})
+ * y cada fila se lee por índice, sin crear objetos adicionales.
+ *
+ * @param <T> tipo del objeto mapeado
+ */
+public class SqlMapperPlan<T> {
+
+    public interface Getter<V> {
+
+        V get(ResultSet rs, int columnIndex) throws SQLException;
+    }
+
+    private interface Column<T> {
+
+        void apply(T obj, ResultSet rs, int columnIndex) throws SQLException;
+    }
+
+    private final List<String> labels = new ArrayList<>();
+    private final List<Column<T>> columns = new ArrayList<>();
+
+    private SqlMapperPlan<T> add(String label, Column<T> column) {
+        if (label == null || label.trim().isEmpty()) throw new IllegalArgumentException("Label can't be null or empty");
+        labels.add(label);
+        columns.add(column);
+        return this;
+    }
+
+    public <V> SqlMapperPlan<T> map(String label, BiConsumer<T, V> setter, Getter<V> getter) {
+        if (setter == null || getter == null) throw new IllegalArgumentException("Setter/Getter can't be null");
+        return this.add(label, (obj, rs, i) -> setter.accept(obj, getter.get(rs, i)));
+    }
+
+    public SqlMapperPlan<T> mapString(String label, BiConsumer<T, String> setter) {
+        return this.map(label, setter, ResultSet::getString);
+    }
+
+    public SqlMapperPlan<T> mapBigDecimal(String label, BiConsumer<T, BigDecimal> setter) {
+        return this.map(label, setter, ResultSet::getBigDecimal);
+    }
+
+    /**
+     * NULL se lee como 0. Usar {@link #map(String, BiConsumer, Getter)} si la columna admite NULL
+     */
+    public SqlMapperPlan<T> mapInt(String label, ObjIntConsumer<T> setter) {
+        if (setter == null) throw new IllegalArgumentException("Setter can't be null");
+        return this.add(label, (obj, rs, i) -> setter.accept(obj, rs.getInt(i)));
+    }
+
+    public SqlMapperPlan<T> mapLong(String label, ObjLongConsumer<T> setter) {
+        if (setter == null) throw new IllegalArgumentException("Setter can't be null");
+        return this.add(label, (obj, rs, i) -> setter.accept(obj, rs.getLong(i)));
+    }
+
+    public SqlMapperPlan<T> mapDouble(String label, ObjDoubleConsumer<T> setter) {
+        if (setter == null) throw new IllegalArgumentException("Setter can't be null");
+        return this.add(label, (obj, rs, i) -> setter.accept(obj, rs.getDouble(i)));
+    }
+
+    public SqlMapperPlan<T> mapBoolean(String label, BiConsumer<T, Boolean> setter) {
+        return this.map(label, setter, ResultSet::getBoolean);
+    }
+
+    /**
+     * Resuelve las etiquetas a índices de columna (sin distinguir mayúsculas)
+     *
+     * @param rsmd metadata del ResultSet
+     * @return plan listo para aplicar a cada fila del ResultSet
+     * @throws Exception si una etiqueta no existe en el ResultSet
+     */
+    public Bound bind(ResultSetMetaData rsmd) throws Exception {
+        int[] indexes = new int[labels.size()];
+        int count = rsmd.getColumnCount();
+        for (int i = 0; i < indexes.length; i++) {
+            String label = labels.get(i);
+            for (int column = 1; column <= count && indexes[i] == 0; column++)
+                if (label.equalsIgnoreCase(rsmd.getColumnLabel(column))) indexes[i] = column;
+            if (indexes[i] == 0) throw Adapter.getException(String.format("Column '%s' not found", label));
+        }
+        return new Bound(indexes);
+    }
+
+    public class Bound {
+
+        private final int[] indexes;
+
+        private Bound(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        /**
+         * Asigna los valores de la fila actual a obj
+         */
+        public void apply(T obj, ResultSet rs) throws SQLException {
+            for (int i = 0; i < indexes.length; i++) columns.get(i).apply(obj, rs, indexes[i]);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package pe.mrodas.jdbc;
 
-import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.JDBCType;
 import java.sql.PreparedStatement;
@@ -14,6 +13,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import pe.mrodas.db.helper.BeanMapper;
+import pe.mrodas.db.helper.Dialect;
+import pe.mrodas.db.helper.ParameterBinders;
+import pe.mrodas.db.helper.ResultIterator;
+import pe.mrodas.db.helper.SqlTemplate;
+import pe.mrodas.db.helper.SqlTemplateCache;
+import pe.mrodas.db.helper.UncheckedSQLException;
 
 /**
  * Uso: <font color="yellow"><code>{@code
@@ -97,9 +105,11 @@ public class SqlQuery<T> extends DBLayer {
     private String query;
     private boolean returnGeneratedKeys;
     private final HashMap<String, Object> parameters = new HashMap<>();
-    private final List<String> parameterNames = new ArrayList<>();
+    private List<String> parameterNames = new ArrayList<>();
     private Optional<String> nullParameter;
     private MapperConfig<T> config;
+    private SqlMapperPlan<T> plan;
+    private int fetchSize;
     private Class<T> clazz;
 
     public SqlQuery() {
@@ -160,6 +170,31 @@ public class SqlQuery<T> extends DBLayer {
 
     public SqlQuery<T> setMapper(MapperConfig<T> config) {
         this.config = config;
+        this.plan = null;
+        return this;
+    }
+
+    /**
+     * Mapeo compilado: las columnas se resuelven una vez por ejecución y se leen por índice
+     *
+     * @param plan Ver {@link SqlMapperPlan}
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setMapper(SqlMapperPlan<T> plan) {
+        this.plan = plan;
+        this.config = null;
+        return this;
+    }
+
+    /**
+     * Lectura en memoria constante: el statement es forward only / read only y las filas se leen
+     * del servidor por bloques (ver {@link Dialect}). Usar con {@link #iterate(Executor)}
+     *
+     * @param fetchSize filas por viaje al servidor (0: por defecto del driver)
+     * @return El mismo objeto SqlQuery
+     */
+    public SqlQuery<T> setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
         return this;
     }
 
@@ -202,28 +237,10 @@ public class SqlQuery<T> extends DBLayer {
         return this;
     }
 
-    private int getIndexWordSeparator(String str) {
-        for (int i = 0; i < str.length(); i++) {
-            char c = str.charAt(i);
-            if (c == ',' || c == ' ' || c == ')' || c == '\n' || c == '\r' || c == ';') {
-                return i;
-            }
-        }
-        return str.length();
-    }
-
     private String prepareQuery() {
-        String[] queryParts = query.split(":");
-        StringBuilder preparedQuery = new StringBuilder(queryParts[0]);
-        for (int i = 1; i < queryParts.length; i++) {
-            String queryPart = queryParts[i];
-            int indexWordSeparator = this.getIndexWordSeparator(queryPart);
-            String paramName = queryPart.substring(0, indexWordSeparator);
-            parameterNames.add(paramName);
-            String part = queryPart.substring(indexWordSeparator, queryPart.length());
-            preparedQuery.append("?").append(part);
-        }
-        return preparedQuery.toString();
+        SqlTemplate template = SqlTemplateCache.get(query);
+        parameterNames = template.getParameterNames();
+        return template.getJdbcSql();
     }
 
     private void checkParameters() throws Exception {
@@ -246,23 +263,10 @@ public class SqlQuery<T> extends DBLayer {
             Object value = parameters.get(name);
             int index = i + 1;
             try {
-                Class objClass = value.getClass();
-                if (objClass.isArray()) {
-                    this.registerArrayParameter(statement, index, value);
-                } else if (objClass == Integer.class) {
-                    statement.setInt(index, (Integer) value);
-                } else if (objClass == String.class) {
-                    statement.setString(index, (String) value);
-                } else if (objClass == Boolean.class) {
-                    statement.setBoolean(index, (Boolean) value);
-                } else if (objClass == Double.class) {
-                    statement.setDouble(index, (Double) value);
-                } else if (objClass == Float.class) {
-                    statement.setFloat(index, (Float) value);
-                } else if (value instanceof Temporal) {
-                    super.setTemporal(statement, index, value, objClass);
-                } else if (value instanceof InputStream) {
-                    statement.setBlob(index, (InputStream) value);
+                if (value instanceof Temporal) {
+                    super.setTemporal(statement, index, value, value.getClass());
+                } else {
+                    ParameterBinders.bind(statement, index, value);
                 }
             } catch (Exception e) {
                 throw Adapter.getException(e, this.whoIam(), name, value.toString());
@@ -270,20 +274,11 @@ public class SqlQuery<T> extends DBLayer {
         }
     }
 
-    private void registerArrayParameter(PreparedStatement statement, int index, Object obj) throws Exception {
-        Class componentType = obj.getClass().getComponentType();
-        if (componentType != null && componentType.isPrimitive()) {
-            if (byte.class.isAssignableFrom(componentType)) {
-                statement.setBytes(index, (byte[]) obj);
-            }
-        }
-    }
-
     private PreparedStatement getStatement(String preparedQuery) throws Exception {
         try {
-            return returnGeneratedKeys
-                    ? connection.prepareStatement(preparedQuery, Statement.RETURN_GENERATED_KEYS)
-                    : connection.prepareStatement(preparedQuery);
+            if (returnGeneratedKeys) return connection.prepareStatement(preparedQuery, Statement.RETURN_GENERATED_KEYS);
+            if (fetchSize > 0) return Dialect.prepareStreaming(connection, preparedQuery, fetchSize, null);
+            return connection.prepareStatement(preparedQuery);
         } catch (SQLException e) {
             throw Adapter.getException(e, preparedQuery);
         }
@@ -346,14 +341,25 @@ public class SqlQuery<T> extends DBLayer {
         }
     }
 
+    /**
+     * Si no se estableció un mapper ({@link #setMapper(MapperConfig)}), las columnas se asignan
+     * automáticamente a los setters o campos de la clase con {@link BeanMapper}
+     */
     public T executeFirst() throws Exception {
         Adapter.checkNotNull(clazz, this.whoIam(), "Include the class object in constructor");
-        Adapter.checkNotNull(config, this.whoIam(), "The object mapper is not set");
+        if (plan != null) return this.execute(rs -> {
+            if (!rs.next()) return null;
+            T result = this.newInstance();
+            plan.bind(rs.getMetaData()).apply(result, rs);
+            return result;
+        });
+        if (config == null)
+            return this.execute(rs -> rs.next() ? BeanMapper.of(clazz, rs.getMetaData()).map(rs) : null);
         return this.execute(rs -> {
             SqlMapper mapper = new SqlMapper(rs.getMetaData());
             T result = null;
             if (rs.next()) {
-                result = clazz.newInstance();
+                result = this.newInstance();
                 config.config(mapper, result, rs);
                 mapper.apply();
             }
@@ -361,13 +367,31 @@ public class SqlQuery<T> extends DBLayer {
         });
     }
 
+    private T newInstance() throws ReflectiveOperationException {
+        return clazz.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Ver {@link #executeFirst()}
+     */
     public List<T> executeList() throws Exception {
         Adapter.checkNotNull(clazz, this.whoIam(), "Include the class object in constructor");
-        Adapter.checkNotNull(config, this.whoIam(), "The object mapper is not set");
+        if (plan != null) return this.execute((rs, list) -> {
+            SqlMapperPlan<T>.Bound bound = plan.bind(rs.getMetaData());
+            while (rs.next()) {
+                T result = this.newInstance();
+                bound.apply(result, rs);
+                list.add(result);
+            }
+        });
+        if (config == null) return this.execute((rs, list) -> {
+            BeanMapper<T> mapper = BeanMapper.of(clazz, rs.getMetaData());
+            while (rs.next()) list.add(mapper.map(rs));
+        });
         return this.execute((rs, list) -> {
             SqlMapper mapper = new SqlMapper(rs.getMetaData());
             while (rs.next()) {
-                T result = clazz.newInstance();
+                T result = this.newInstance();
                 config.config(mapper, result, rs);
                 mapper.apply();
                 list.add(result);
@@ -375,6 +399,36 @@ public class SqlQuery<T> extends DBLayer {
         });
     }
 
+    /**
+     * Ejecuta el query y devuelve un iterador perezoso: cada fila se lee y mapea a demanda.
+     * La conexión se mantiene hasta terminar de recorrerlo o cerrarlo (usar try-with-resources)
+     *
+     * @param rowMapper mapea la fila actual (no debe llamar a rs.next())
+     * @return Iterador de filas. Los errores SQL se lanzan como {@link UncheckedSQLException}
+     * @throws Exception Si hay error al ejecutar
+     */
+    public ResultIterator<T> iterate(Executor<T> rowMapper) throws Exception {
+        Adapter.checkNotNull(rowMapper, this.whoIam(), "The object executor can't be null");
+        try {
+            ResultSet rs = this.executeStatement().getResultSet();
+            return new ResultIterator<>(rs, rowMapper::execute, this::closeConnection,
+                    e -> new SQLException(String.format("%s: %s", this.whoIam(), e.getMessage()), e));
+        } catch (Exception e) {
+            this.closeConnection();
+            throw Adapter.getException(e, this.whoIam());
+        }
+    }
+
+    /**
+     * Versión perezosa de {@link #execute(ExecutorList)}. El Stream debe cerrarse (try-with-resources)
+     * salvo que se consuma por completo
+     *
+     * @param rowMapper mapea la fila actual (no debe llamar a rs.next())
+     */
+    public Stream<T> executeStream(Executor<T> rowMapper) throws Exception {
+        return this.iterate(rowMapper).stream();
+    }
+
     /**
      * Ejectua el query. No controla Excepciones. Si<br>
      * <code>autoCloseConnection == true</code> cierra la conexión (def: true)
@@ -0,0 +1,98 @@
+package pe.mrodas.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchLoaderTest {
+
+    private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Loader whose query returns a row ("row" + key) for every key except 3, run in the calling thread.
+     * Key -1 makes the query throw an Error
+     */
+    private BatchLoader<Integer, String> loader(long windowMillis, int maxBatchSize) {
+        BatchLoader<Integer, String> loader = new BatchLoader<Integer, String>("SELECT * FROM t WHERE id IN (:ids)", "ids",
+                String.class, row -> Integer.valueOf(row.substring(3))) {
+            @Override
+            protected List<String> query(List<Integer> keys) {
+                batches.add(keys);
+                if (keys.contains(-1)) throw new LinkageError("mapper class missing");
+                return keys.stream().filter(key -> key != 3).map(key -> "row" + key).collect(Collectors.toList());
+            }
+        };
+        return loader.setWindow(windowMillis, TimeUnit.MILLISECONDS).setMaxBatchSize(maxBatchSize).setExecutor(Runnable::run);
+    }
+
+    @Test
+    public void coalescesKeys() throws Exception {
+        BatchLoader<Integer, String> loader = this.loader(60_000, 10);
+        CompletableFuture<String> first = loader.load(1), second = loader.load(2), repeated = loader.load(1), missing = loader.load(3);
+        assertFalse(first.isDone());
+        loader.close();
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2, 3)), batches);
+        assertEquals("row1", first.get());
+        assertEquals("row1", repeated.get());
+        assertEquals("row2", second.get());
+        assertNull(missing.get());
+    }
+
+    @Test
+    public void dispatchesAtMaxSize() throws Exception {
+        BatchLoader<Integer, String> loader = this.loader(60_000, 2);
+        CompletableFuture<String> first = loader.load(1);
+        assertEquals("row2", loader.load(2).getNow(null));
+        assertEquals("row1", first.getNow(null));
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), batches);
+        loader.close();
+    }
+
+    @Test
+    public void timerOfSentBatchIsIgnored() throws Exception {
+        BatchLoader<Integer, String> loader = this.loader(400, 2);
+        loader.load(1);
+        Thread.sleep(200);
+        loader.load(2);
+        CompletableFuture<String> next = loader.load(4);
+        Thread.sleep(300);
+        assertFalse(next.isDone());
+        assertEquals("row4", next.get(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(4)), batches);
+        loader.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsAfterClose() {
+        BatchLoader<Integer, String> loader = this.loader(60_000, 10);
+        loader.close();
+        loader.load(1);
+    }
+
+    @Test
+    public void errorCompletesFutures() throws Exception {
+        BatchLoader<Integer, String> loader = this.loader(60_000, 2);
+        CompletableFuture<String> first = loader.load(1), failing = loader.load(-1);
+        assertTrue(first.isCompletedExceptionally());
+        try {
+            failing.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof LinkageError);
+        }
+        loader.close();
+    }
+}
@@ -0,0 +1,77 @@
+package pe.mrodas.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.BeanMapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BeanMapperTest {
+
+    public static class User {
+        private int id;
+        private String firstName;
+        Long score;
+        private double ratio;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id * 10;
+        }
+
+        public User withRatio(double ratio) {
+            this.ratio = ratio * 2;
+            return this;
+        }
+
+        public User score(Long score) {
+            this.score = -1L;
+            return this;
+        }
+
+        public void setFirstName(Object firstName) {
+            this.firstName = "object";
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+    }
+
+    public static class Ambiguous {
+        public void setId(int id) {
+        }
+
+        public void setId(String id) {
+        }
+    }
+
+    private static final JdbcStubs.Rows ROWS = new JdbcStubs.Rows("id", "first_name", "SCORE", "ratio", "unknown")
+            .add(7, "Ana", null, 0.5, "x");
+
+    @Test
+    public void mapsByLabel() throws SQLException {
+        ResultSet rs = ROWS.resultSet();
+        rs.next();
+        BeanMapper<User> mapper = BeanMapper.of(User.class, rs.getMetaData());
+        User user = mapper.map(rs);
+        assertEquals(70, user.getId());
+        assertEquals("Ana", user.firstName);
+        assertNull(user.score);
+        assertEquals(1.0, user.ratio, 0);
+        assertSame(mapper, BeanMapper.of(User.class, rs.getMetaData()));
+    }
+
+    @Test(expected = SQLException.class)
+    public void rejectsAmbiguousSetters() throws SQLException {
+        BeanMapper.of(Ambiguous.class, ROWS.metaData());
+    }
+}
@@ -0,0 +1,44 @@
+package pe.mrodas.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.ColumnarResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarResultTest {
+
+    private static final int ROWS = ColumnarResult.CHUNK_SIZE * 2 + 3;
+    private static final int[] TYPES = {Types.INTEGER, Types.BIGINT, Types.DOUBLE, Types.VARCHAR};
+
+    /**
+     * Row n: c1 = n (NULL every 10 rows), c2 = n * 1000, c3 = n / 2.0, c4 = "even"/"odd"
+     */
+    private static ResultSet rows() {
+        JdbcStubs.Rows rows = new JdbcStubs.Rows("c1", "c2", "c3", "c4").types(TYPES);
+        for (int n = 1; n <= ROWS; n++) rows.add(n % 10 == 0 ? null : n, n * 1000L, n / 2.0, n % 2 == 0 ? "even" : "odd");
+        return rows.resultSet();
+    }
+
+    @Test
+    public void readsTypedColumns() throws SQLException {
+        ColumnarResult result = ColumnarResult.read(rows());
+        assertEquals(ROWS, result.getRowCount());
+        assertEquals(ColumnarResult.Kind.STRING, result.getKind(result.indexOf("C4")));
+        int last = ROWS - 1;
+        assertEquals(ROWS, result.getInt(last, 0));
+        assertTrue(result.isNull(9, 0));
+        assertNull(result.getObject(9, 0));
+        assertEquals(ROWS * 1000L, result.getLong(last, 1));
+        assertEquals(ROWS / 2.0, result.getDouble(last, 2), 0);
+        assertEquals(2, result.getDictionary(3).size());
+        assertEquals("odd", result.getString(0, 3));
+        assertEquals(result.getCode(0, 3), result.getCode(last, 3));
+    }
+}
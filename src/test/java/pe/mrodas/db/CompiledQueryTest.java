@@ -0,0 +1,80 @@
+package pe.mrodas.db;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.Autoclose;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CompiledQueryTest {
+
+    private static final CompiledQuery<Object> QUERY = SqlQuery.compile("SELECT * FROM t WHERE a = :a OR b = :b OR a2 = :a");
+
+    @Test
+    public void indexesDistinctNames() {
+        assertEquals(0, QUERY.indexOf("a"));
+        assertEquals(1, QUERY.indexOf("b"));
+        assertEquals(-1, QUERY.indexOf("c"));
+        assertSame(QUERY.getTemplate(), SqlQuery.compile(QUERY.getTemplate().getSql()).getTemplate());
+    }
+
+    @Test(expected = IOException.class)
+    public void missingParameter() throws IOException, SQLException {
+        QUERY.bind().setInt("a", 1).execute();
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownParameter() throws IOException, SQLException {
+        QUERY.bind().setInt("a", 1).setInt("b", 2).setLong("c", 3).execute();
+    }
+
+    /**
+     * One CompiledQuery bound and executed from several threads: each execution reads its own values
+     */
+    @Test
+    public void bindsFromSeveralThreads() throws Exception {
+        CompiledQuery<Object> query = SqlQuery.compile("SELECT * FROM t WHERE a = :a AND b = :b AND c = :c AND d = :d");
+        int a = query.indexOf("a"), c = query.indexOf("c");
+        JdbcStubs.StubConnection stub = new JdbcStubs.StubConnection(sql -> {
+            List<Object> bound = new ArrayList<>();
+            return (method, args) -> {
+                if (method.startsWith("set")) bound.add(args[1]);
+                if (method.equals("execute")) return true;
+                return method.equals("getResultSet") ? new JdbcStubs.Rows("a", "b", "c", "d").add(bound.toArray()).resultSet() : null;
+            };
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                results.add(executor.submit(() -> query.bind(stub.connect(), Autoclose.YES)
+                        .setLong(a, n).setDouble("b", n / 2.0).set(c, "n" + n).setBoolean("d", n % 2 == 0)
+                        .executeForList((st, rs) -> {
+                            rs.next();
+                            return Arrays.asList(rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4));
+                        })));
+            }
+            for (int i = 0; i < results.size(); i++)
+                assertEquals(Arrays.asList((long) i, i / 2.0, "n" + i, i % 2 == 0), results.get(i).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200, stub.getPrepared().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void nullValueByIndex() throws IOException, SQLException {
+        QUERY.bind().set(QUERY.indexOf("a"), null).setInt("b", 2).execute();
+    }
+}
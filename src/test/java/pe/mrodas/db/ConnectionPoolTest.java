@@ -0,0 +1,185 @@
+package pe.mrodas.db;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionPoolTest {
+
+    private static final AtomicInteger opened = new AtomicInteger();
+    private static final Driver driver = new StubDriver();
+
+    @BeforeClass
+    public static void register() throws SQLException {
+        DriverManager.registerDriver(driver);
+    }
+
+    @AfterClass
+    public static void deregister() throws SQLException {
+        DriverManager.deregisterDriver(driver);
+    }
+
+    private Properties getProperties(int maxSize) {
+        Properties properties = new Properties();
+        properties.setProperty(ConnectionPool.MAX_SIZE, String.valueOf(maxSize));
+        properties.setProperty(ConnectionPool.ACQUIRE_TIMEOUT, "100");
+        return properties;
+    }
+
+    @Test
+    public void reusesPhysicalConnection() throws SQLException {
+        int before = opened.get();
+        try (ConnectionPool pool = new ConnectionPool("jdbc:stub:test", this.getProperties(2))) {
+            for (int i = 0; i < 10; i++) pool.getConnection().close();
+            assertEquals(1, opened.get() - before);
+            assertEquals(1, pool.getIdleConnections());
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void timeoutWhenExhausted() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool("jdbc:stub:test", this.getProperties(1))) {
+            Connection connection = pool.getConnection();
+            assertTrue(!connection.isClosed());
+            pool.getConnection();
+        }
+    }
+
+    @Test
+    public void reusesCachedStatement() throws SQLException {
+        Properties properties = this.getProperties(1);
+        properties.setProperty(ConnectionPool.STATEMENT_CACHE_SIZE, "1");
+        try (ConnectionPool pool = new ConnectionPool("jdbc:stub:test", properties)) {
+            PreparedStatement first, second;
+            try (Connection connection = pool.getConnection()) {
+                PreparedStatement inUse = connection.prepareStatement("SELECT 1");
+                first = connection.prepareStatement("SELECT 1");
+                assertNotSame(inUse, first);
+            }
+            try (Connection connection = pool.getConnection()) {
+                second = connection.prepareStatement("SELECT 1");
+                connection.prepareStatement("SELECT 2");
+            }
+            assertSame(first.unwrap(PreparedStatement.class), second.unwrap(PreparedStatement.class));
+            assertEquals(1, pool.getStatementCacheHits());
+            assertEquals(3, pool.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void closedStatementGoesBackToCache() throws SQLException {
+        Properties properties = this.getProperties(1);
+        properties.setProperty(ConnectionPool.STATEMENT_CACHE_SIZE, "4");
+        try (ConnectionPool pool = new ConnectionPool("jdbc:stub:test", properties)) {
+            try (Connection connection = pool.getConnection()) {
+                PreparedStatement physical;
+                try (PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+                    assertSame(connection, statement.getConnection());
+                    physical = statement.unwrap(PreparedStatement.class);
+                }
+                try (PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+                    assertSame(physical, statement.unwrap(PreparedStatement.class));
+                    assertFalse(physical.isClosed());
+                }
+            }
+            assertEquals(1, pool.getStatementCacheHits());
+            assertEquals(1, pool.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void restoresConnectionState() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool("jdbc:stub:test", this.getProperties(1))) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setReadOnly(true);
+                assertTrue(connection.isReadOnly());
+            }
+            try (Connection connection = pool.getConnection()) {
+                assertFalse(connection.isReadOnly());
+            }
+        }
+    }
+
+    private static <T> T stub(Class<T> type) {
+        boolean[] closed = {false}, readOnly = {false};
+        return JdbcStubs.proxy(type, (method, args) -> {
+            switch (method) {
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                case "setReadOnly":
+                    readOnly[0] = (boolean) args[0];
+                    return null;
+                case "isReadOnly":
+                    return readOnly[0];
+                case "getTransactionIsolation":
+                    return Connection.TRANSACTION_READ_COMMITTED;
+                case "isValid":
+                case "getAutoCommit":
+                    return true;
+                case "prepareStatement":
+                    return stub(PreparedStatement.class);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static class StubDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!this.acceptsURL(url)) return null;
+            opened.incrementAndGet();
+            return stub(Connection.class);
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:stub:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
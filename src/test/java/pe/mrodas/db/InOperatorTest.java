@@ -0,0 +1,29 @@
+package pe.mrodas.db;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.InOperator;
+
+import static org.junit.Assert.assertEquals;
+
+public class InOperatorTest {
+
+    @Test
+    public void bucketSize() {
+        assertEquals(1, InOperator.getBucketSize(1));
+        assertEquals(2, InOperator.getBucketSize(2));
+        assertEquals(4, InOperator.getBucketSize(3));
+        assertEquals(8, InOperator.getBucketSize(5));
+        assertEquals(1024, InOperator.getBucketSize(1024));
+    }
+
+    @Test
+    public void padsWithLastValue() {
+        InOperator<Integer> inOperator = new InOperator<>("id", Arrays.asList(7, 8, 9), true);
+        assertEquals(":id0,:id1,:id2,:id3", inOperator.getFields());
+        assertEquals(Integer.valueOf(9), inOperator.getParameters().get("id3"));
+        assertEquals(":id0,:id1,:id2", new InOperator<>("id", Arrays.asList(7, 8, 9), false).getFields());
+    }
+}
@@ -0,0 +1,221 @@
+package pe.mrodas.db;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+/**
+ * JDBC stubs for the tests (no database): JDK proxies whose methods are answered by name.
+ * Methods without an answer return null (0/false if the result is primitive); numeric answers are
+ * converted to the primitive result of the method (ex: an Integer value read with getLong).
+ */
+public final class JdbcStubs {
+
+    private JdbcStubs() {
+    }
+
+    @FunctionalInterface
+    public interface Answer {
+        /**
+         * @return result of the method, null for the default result
+         */
+        Object answer(String method, Object[] args) throws Throwable;
+    }
+
+    public static <T> T proxy(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result = answer.answer(method.getName(), args);
+            Class<?> resultType = method.getReturnType();
+            if (result instanceof Number && resultType.isPrimitive()) return JdbcStubs.convert((Number) result, resultType);
+            if (result != null) return result;
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Stub" + type.getSimpleName();
+            }
+            if (resultType == boolean.class) return false;
+            return resultType.isPrimitive() && resultType != void.class ? JdbcStubs.convert(0, resultType) : null;
+        }));
+    }
+
+    private static Object convert(Number number, Class<?> type) {
+        if (type == int.class) return number.intValue();
+        if (type == long.class) return number.longValue();
+        if (type == double.class) return number.doubleValue();
+        if (type == float.class) return number.floatValue();
+        if (type == short.class) return number.shortValue();
+        if (type == byte.class) return number.byteValue();
+        return number;
+    }
+
+    public static DataSource dataSource(Supplier<Connection> connections) {
+        return JdbcStubs.proxy(DataSource.class, (method, args) -> method.equals("getConnection") ? connections.get() : null);
+    }
+
+    /**
+     * Rows of a result: {@link #resultSet()} reads them by column (1 based) or label, wasNull() tells if the
+     * last value read was null. The labels (and types, def: OTHER) are answered by {@link #metaData()}
+     */
+    public static class Rows {
+
+        private final String[] labels;
+        private final List<Object[]> values = new ArrayList<>();
+        private int[] types;
+
+        public Rows(String... labels) {
+            this.labels = labels;
+        }
+
+        public Rows types(int... types) {
+            this.types = types;
+            return this;
+        }
+
+        public Rows add(Object... row) {
+            values.add(row);
+            return this;
+        }
+
+        /**
+         * @return the rows (modifiable: the result sets created later read the changes)
+         */
+        public List<Object[]> getValues() {
+            return values;
+        }
+
+        public ResultSetMetaData metaData() {
+            return JdbcStubs.proxy(ResultSetMetaData.class, (method, args) -> {
+                switch (method) {
+                    case "getColumnCount":
+                        return labels.length;
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return labels[(int) args[0] - 1];
+                    case "getColumnType":
+                        return types == null ? Types.OTHER : types[(int) args[0] - 1];
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        public ResultSet resultSet() {
+            return this.resultSet(values);
+        }
+
+        /**
+         * @param rows rows read instead of the added ones (ex: filtered by a parameter)
+         */
+        public ResultSet resultSet(List<Object[]> rows) {
+            int[] row = {0};
+            boolean[] wasNull = {false};
+            return JdbcStubs.proxy(ResultSet.class, (method, args) -> {
+                switch (method) {
+                    case "next":
+                        return ++row[0] <= rows.size();
+                    case "getRow":
+                        return row[0] <= rows.size() ? row[0] : 0;
+                    case "wasNull":
+                        return wasNull[0];
+                    case "getMetaData":
+                        return this.metaData();
+                    case "findColumn":
+                        return this.findColumn((String) args[0]);
+                }
+                if (!method.startsWith("get") || args == null || args.length != 1) return null;
+                int column = args[0] instanceof String ? this.findColumn((String) args[0]) : (int) args[0];
+                Object value = rows.get(row[0] - 1)[column - 1];
+                wasNull[0] = value == null;
+                return value;
+            });
+        }
+
+        private int findColumn(String label) throws SQLException {
+            for (int i = 0; i < labels.length; i++) if (labels[i].equalsIgnoreCase(label)) return i + 1;
+            throw new SQLException(String.format("Column '%s' not found!", label));
+        }
+    }
+
+    /**
+     * Connection that records the prepared SQL, the commit/rollback calls and the closed statements.
+     * Each statement is answered by the Answer that the factory returns for its SQL
+     */
+    public static class StubConnection {
+
+        private final Function<String, Answer> statements;
+        private final List<String> prepared = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> transaction = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger closedStatements = new AtomicInteger();
+
+        public StubConnection(Function<String, Answer> statements) {
+            this.statements = statements;
+        }
+
+        /**
+         * @return a new connection (autoCommit on)
+         */
+        public Connection connect() {
+            boolean[] autoCommit = {true};
+            return JdbcStubs.proxy(Connection.class, (method, args) -> {
+                switch (method) {
+                    case "prepareStatement":
+                        return this.statement(PreparedStatement.class, (String) args[0]);
+                    case "prepareCall":
+                        return this.statement(CallableStatement.class, (String) args[0]);
+                    case "getAutoCommit":
+                        return autoCommit[0];
+                    case "setAutoCommit":
+                        autoCommit[0] = (boolean) args[0];
+                        return null;
+                    case "commit":
+                    case "rollback":
+                        transaction.add(method);
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        private <S extends PreparedStatement> S statement(Class<S> type, String sql) {
+            prepared.add(sql);
+            Answer answer = statements.apply(sql);
+            return JdbcStubs.proxy(type, (method, args) -> {
+                if (method.equals("close")) closedStatements.incrementAndGet();
+                return answer.answer(method, args);
+            });
+        }
+
+        public DataSource dataSource() {
+            return JdbcStubs.dataSource(this::connect);
+        }
+
+        public List<String> getPrepared() {
+            return prepared;
+        }
+
+        public List<String> getTransaction() {
+            return transaction;
+        }
+
+        public int getClosedStatements() {
+            return closedStatements.get();
+        }
+    }
+}
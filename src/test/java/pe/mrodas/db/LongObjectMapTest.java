@@ -0,0 +1,25 @@
+package pe.mrodas.db;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.LongObjectMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LongObjectMapTest {
+
+    @Test
+    public void putGetAndCopy() {
+        LongObjectMap<String> map = new LongObjectMap<>(0);
+        for (long key = -500; key < 500; key++) map.put(key * 1024, "v" + key);
+        assertEquals(1000, map.size());
+        assertEquals("v-3", map.get(-3 * 1024));
+        assertNull(map.get(1));
+        LongObjectMap<String> copy = map.copy();
+        assertEquals("v0", copy.put(0, "changed"));
+        assertEquals("v0", map.get(0));
+        assertEquals("changed", copy.get(0));
+        assertEquals(1000, copy.values().size());
+    }
+}
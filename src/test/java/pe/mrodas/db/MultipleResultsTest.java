@@ -0,0 +1,51 @@
+package pe.mrodas.db;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.MultipleResults;
+import pe.mrodas.db.helper.ThrowingConsumer;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultipleResultsTest {
+
+    /**
+     * Results: rs1, update count 5, rs2, rs3
+     */
+    @Test
+    public void consumesInOrder() throws Exception {
+        Object[] results = {"rs1", 5, "rs2", "rs3"};
+        int[] current = {0};
+        List<String> calls = new ArrayList<>();
+        Statement statement = JdbcStubs.proxy(Statement.class, (method, args) -> {
+            Object result = current[0] < results.length ? results[current[0]] : null;
+            switch (method) {
+                case "getResultSet":
+                    return result instanceof String ? resultSet((String) result, calls) : null;
+                case "getUpdateCount":
+                    return result instanceof Integer ? result : -1;
+                case "getMoreResults":
+                    current[0]++;
+                    return current[0] < results.length && results[current[0]] instanceof String;
+                default:
+                    return null;
+            }
+        });
+        ThrowingConsumer<ResultSet> first = rs -> calls.add("read " + rs), second = rs -> calls.add("read " + rs);
+        assertEquals(3, MultipleResults.consume(statement, Arrays.asList(first, second)));
+        assertEquals(Arrays.asList("read rs1", "close rs1", "read rs2", "close rs2", "close rs3"), calls);
+    }
+
+    private static ResultSet resultSet(String name, List<String> calls) {
+        return JdbcStubs.proxy(ResultSet.class, (method, args) -> {
+            if (method.equals("close")) calls.add("close " + name);
+            return method.equals("toString") ? name : null;
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package pe.mrodas.db;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.Autoclose;
+import pe.mrodas.db.helper.ParameterBinders;
+import pe.mrodas.db.helper.ValueBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParameterBindersTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final PreparedStatement statement = JdbcStubs.proxy(PreparedStatement.class, (method, args) -> {
+        calls.add(method + ":" + args[1]);
+        return null;
+    });
+
+    @Test
+    public void bindsByClass() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        ParameterBinders.bind(statement, 1, 5L);
+        ParameterBinders.bind(statement, 2, new BigDecimal("1.5"));
+        ParameterBinders.bind(statement, 3, JDBCType.DATE);
+        ParameterBinders.bind(statement, 4, uuid);
+        ParameterBinders.bind(statement, 5, new StringBuilder("x"));
+        assertEquals("setLong:5", calls.get(0));
+        assertEquals("setBigDecimal:1.5", calls.get(1));
+        assertEquals("setString:DATE", calls.get(2));
+        assertEquals("setString:" + uuid, calls.get(3));
+        assertEquals("setObject:x", calls.get(4));
+    }
+
+    @Test
+    public void customBinder() throws SQLException {
+        ParameterBinders.register(StringBuilder.class, (st, i, v) -> st.setString(i, v.toString()));
+        ParameterBinders.bind(statement, 1, new StringBuilder("y"));
+        assertEquals("setString:y", calls.get(0));
+        ParameterBinders.register(StringBuilder.class, (st, i, v) -> st.setObject(i, v));
+    }
+
+    @Test
+    public void valueBufferBindsUnboxed() throws SQLException {
+        ValueBuffer values = new ValueBuffer(1);
+        values.addInt(-3);
+        values.add("a");
+        values.addDouble(2.5);
+        values.addLong(Long.MAX_VALUE);
+        values.addBoolean(true);
+        for (int i = 0; i < values.size(); i++) values.bind(statement, i + 1, i);
+        assertEquals("[setInt:-3, setString:a, setDouble:2.5, setLong:" + Long.MAX_VALUE + ", setBoolean:true]", calls.toString());
+        assertEquals(2.5, values.get(2));
+    }
+
+    @Test
+    public void primitiveParameterOverwritesItsValue() throws Exception {
+        JdbcStubs.Rows rows = new JdbcStubs.Rows("Id");
+        JdbcStubs.StubConnection connection = new JdbcStubs.StubConnection(sql -> (method, args) -> {
+            if (method.startsWith("set")) calls.add(method + ":" + args[1]);
+            return method.equals("execute") ? true : method.equals("getResultSet") ? rows.resultSet() : null;
+        });
+        new SqlQuery<>(connection.connect(), Autoclose.YES).setSql("SELECT * FROM item WHERE id = :id OR parent = :id")
+                .addInt("id", 1).addLong("id", 2L).addParameter("id", "x").addInt("id", 3)
+                .forEachRow(row -> {
+                });
+        assertEquals("[setInt:3, setInt:3]", calls.toString());
+    }
+}
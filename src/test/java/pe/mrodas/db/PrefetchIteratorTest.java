@@ -0,0 +1,55 @@
+package pe.mrodas.db;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.PrefetchIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class PrefetchIteratorTest {
+
+    @Test(timeout = 5000)
+    public void readsSourceInOrder() {
+        PrefetchIterator<Integer> iterator = new PrefetchIterator<>(Arrays.asList(1, null, 3).iterator(), 1, null);
+        assertEquals(Integer.valueOf(1), iterator.next());
+        assertEquals(null, iterator.next());
+        assertEquals(Integer.valueOf(3), iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(timeout = 5000)
+    public void producerInterruptionReachesConsumer() throws Exception {
+        AtomicReference<Thread> producer = new AtomicReference<>();
+        Iterator<Integer> endless = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return 1;
+            }
+        };
+        PrefetchIterator<Integer> iterator = new PrefetchIterator<>(endless, 1, runnable -> {
+            Thread thread = new Thread(runnable);
+            producer.set(thread);
+            thread.start();
+        }, null);
+        assertEquals(Integer.valueOf(1), iterator.next());
+        Thread.sleep(100);
+        producer.get().interrupt();
+        try {
+            while (iterator.hasNext()) iterator.next();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Producer interrupted", e.getMessage());
+        }
+    }
+}
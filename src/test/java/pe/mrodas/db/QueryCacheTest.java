@@ -0,0 +1,115 @@
+package pe.mrodas.db;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+import pe.mrodas.db.helper.QueryCache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueryCacheTest {
+
+    private static final String SQL = "SELECT * FROM `catalog` c JOIN item i ON i.id = c.item_id WHERE c.id = ?";
+
+    @After
+    public void reset() {
+        QueryCache.clear();
+        QueryCache.setMaxWeight(100_000);
+        QueryCache.setClearOnUnknownWrite(false);
+    }
+
+    private QueryCache.Key key(int id) {
+        return QueryCache.key(SQL, new Object[]{id}, String.class, true);
+    }
+
+    @Test
+    public void invalidatesByTable() {
+        QueryCache.put(this.key(1), Collections.singletonList("a"), 60_000);
+        assertEquals(Collections.singletonList("a"), QueryCache.get(this.key(1)));
+        assertNull(QueryCache.get(this.key(2)));
+        QueryCache.invalidateFor("UPDATE other SET x = 1");
+        assertEquals(1, QueryCache.getSize());
+        QueryCache.invalidateFor("DELETE FROM item WHERE id = 3");
+        assertEquals(0, QueryCache.getSize());
+    }
+
+    @Test
+    public void evictsByWeight() {
+        QueryCache.setMaxWeight(3);
+        QueryCache.put(this.key(1), Arrays.asList("a", "b"), 60_000);
+        QueryCache.put(this.key(2), Arrays.asList("c", "d"), 60_000);
+        assertNull(QueryCache.get(this.key(1)));
+        assertEquals(2, QueryCache.getWeight());
+    }
+
+    @Test
+    public void skipsStaleLoad() {
+        QueryCache.Key key = this.key(1);
+        QueryCache.invalidate("catalog");
+        QueryCache.put(key, Collections.singletonList("old"), 60_000);
+        assertNull(QueryCache.get(this.key(1)));
+    }
+
+    @Test
+    public void invalidatesEveryTableOfFromList() {
+        QueryCache.Key key = QueryCache.key("SELECT * FROM a x, b AS y JOIN c ON c.id = y.id WHERE x.id = ?", new Object[]{1}, "k", false);
+        QueryCache.put(key, "value", 60_000);
+        QueryCache.invalidate("c");
+        assertNull(QueryCache.get(key));
+        key = QueryCache.key("SELECT * FROM a x, b AS y WHERE x.id = ?", new Object[]{1}, "k", false);
+        QueryCache.put(key, "value", 60_000);
+        QueryCache.invalidate("b");
+        assertNull(QueryCache.get(key));
+    }
+
+    @Test
+    public void skipsSubqueries() {
+        QueryCache.Key key = QueryCache.key("SELECT * FROM a WHERE id IN (SELECT a_id FROM b)", new Object[0], "k", false);
+        QueryCache.put(key, "value", 60_000);
+        assertNull(QueryCache.get(key));
+    }
+
+    @Test
+    public void keysByMapperKey() {
+        QueryCache.put(QueryCache.key(SQL, new Object[]{1}, "name", false), "a", 60_000);
+        assertNull(QueryCache.get(QueryCache.key(SQL, new Object[]{1}, "code", false)));
+        assertEquals("a", QueryCache.get(QueryCache.key(SQL, new Object[]{1}, "name", false)));
+    }
+
+    @Test
+    public void unknownWritesClearOnlyIfEnabled() {
+        QueryCache.put(this.key(1), Collections.singletonList("a"), 60_000);
+        QueryCache.invalidateFor("CALL refresh_stats(?)");
+        QueryCache.invalidateFor("SELECT * FROM item FOR UPDATE");
+        assertEquals(1, QueryCache.getSize());
+        QueryCache.setClearOnUnknownWrite(true);
+        QueryCache.invalidateFor("SET @x = 1");
+        assertEquals(1, QueryCache.getSize());
+        QueryCache.invalidateFor("{call refresh_stats(?)}");
+        assertEquals(0, QueryCache.getSize());
+    }
+
+    @Test
+    public void concurrentReadsAndInvalidations() throws Exception {
+        QueryCache.setMaxWeight(50);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    QueryCache.Key key = this.key(i % 100);
+                    if (QueryCache.get(key) == null) QueryCache.put(key, Collections.singletonList(i), 60_000);
+                    if (i % 500 == 0) QueryCache.invalidate("item");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(QueryCache.getSize(), QueryCache.getWeight());
+        assertTrue(QueryCache.getWeight() <= 50);
+    }
+}
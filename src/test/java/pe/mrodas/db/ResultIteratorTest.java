@@ -0,0 +1,42 @@
+package pe.mrodas.db;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.ResultIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ResultIteratorTest {
+
+    private final AtomicInteger released = new AtomicInteger();
+
+    private ResultIterator<Integer> iterator(int rows) {
+        JdbcStubs.Rows values = new JdbcStubs.Rows("n");
+        for (int n = 1; n <= rows; n++) values.add(n);
+        return new ResultIterator<>(values.resultSet(), r -> r.getInt(1), released::incrementAndGet, e -> e);
+    }
+
+    @Test
+    public void releasesWhenExhausted() {
+        ResultIterator<Integer> iterator = this.iterator(3);
+        assertEquals("1,2,3", iterator.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        assertEquals(1, released.get());
+        assertFalse(iterator.hasNext());
+        iterator.close();
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void releasesWhenClosed() {
+        try (Stream<Integer> stream = this.iterator(1000).stream()) {
+            assertEquals(2, stream.limit(2).count());
+            assertEquals(0, released.get());
+        }
+        assertEquals(1, released.get());
+    }
+}
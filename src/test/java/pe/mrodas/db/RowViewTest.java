@@ -0,0 +1,68 @@
+package pe.mrodas.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.Autoclose;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RowViewTest {
+
+    private static final int ROWS = 5;
+
+    /**
+     * Row n has id n, amount n / 2.0 (NULL on even rows) and name "n" + n
+     */
+    private static SqlQuery<Object> query() {
+        JdbcStubs.Rows rows = new JdbcStubs.Rows("Id", "Amount", "Name");
+        for (int n = 1; n <= ROWS; n++) rows.add((long) n, n % 2 == 0 ? null : n / 2.0, "n" + n);
+        JdbcStubs.StubConnection connection = new JdbcStubs.StubConnection(sql -> (method, args) -> {
+            switch (method) {
+                case "execute":
+                    return true;
+                case "getResultSet":
+                    return rows.resultSet();
+                default:
+                    return null;
+            }
+        });
+        return new SqlQuery<>(connection.connect(), Autoclose.YES).setSql("SELECT id, amount, name FROM item");
+    }
+
+    @Test
+    public void readsTypedColumns() throws Exception {
+        List<String> names = new ArrayList<>();
+        double[] total = {0};
+        int[] nulls = {0};
+        long count = query().forEachRow(row -> {
+            int amount = row.indexOf("AMOUNT");
+            assertEquals(row.getRowNumber(), row.getLong(row.indexOf("id")));
+            double value = row.getDouble(amount);
+            if (row.wasNull()) nulls[0]++;
+            else total[0] += value;
+            names.add(row.getString(3));
+            assertFalse(row.wasNull());
+        });
+        assertEquals(ROWS, count);
+        assertEquals((1 + 3 + 5) / 2.0, total[0], 0);
+        assertEquals(2, nulls[0]);
+        assertEquals("n5", names.get(ROWS - 1));
+    }
+
+    @Test
+    public void unknownLabel() throws Exception {
+        try {
+            query().forEachRow(row -> row.indexOf("missing"));
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().contains("missing"));
+            return;
+        }
+        throw new AssertionError("Expected SQLException");
+    }
+}
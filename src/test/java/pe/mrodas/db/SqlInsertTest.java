@@ -0,0 +1,173 @@
+package pe.mrodas.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SqlInsertTest {
+
+    private final JdbcStubs.StubConnection stub = new JdbcStubs.StubConnection(this::statement);
+    private final List<String> prepared = stub.getPrepared();
+    private final List<String> transaction = stub.getTransaction();
+    private int closedKeys;
+    private final long[] nextKey = {100};
+
+    private Connection connection() {
+        return stub.connect();
+    }
+
+    /**
+     * Statement that inserts every bound row and returns sequential keys
+     * (like some drivers, the keys of a batch are lost on clearBatch)
+     */
+    private JdbcStubs.Answer statement(String sql) {
+        int rowsPerExecute = sql.split("\\),").length;
+        int[] batched = {0};
+        int[] lastRows = {0};
+        return (method, args) -> {
+            switch (method) {
+                case "addBatch":
+                    batched[0]++;
+                    return null;
+                case "executeBatch":
+                    lastRows[0] = batched[0];
+                    batched[0] = 0;
+                    int[] counts = new int[lastRows[0]];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                case "executeUpdate":
+                    lastRows[0] = rowsPerExecute;
+                    return rowsPerExecute;
+                case "execute":
+                    lastRows[0] = 1;
+                    return false;
+                case "getUpdateCount":
+                    return 1;
+                case "clearBatch":
+                    lastRows[0] = 0;
+                    return null;
+                case "getGeneratedKeys":
+                    return this.keys(lastRows[0]);
+                default:
+                    return null;
+            }
+        };
+    }
+
+    private ResultSet keys(int rows) {
+        int[] read = {0};
+        long[] current = {0};
+        return JdbcStubs.proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    if (read[0]++ >= rows) return false;
+                    current[0] = nextKey[0]++;
+                    return true;
+                case "getLong":
+                    return current[0];
+                case "close":
+                    closedKeys++;
+                    return null;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private SqlInsert insert(int rows) {
+        SqlInsert insert = new SqlInsert("item");
+        for (int i = 0; i < rows; i++) insert.addInt("id", i).addField("name", "n" + i);
+        return insert;
+    }
+
+    @Test
+    public void batchReturnsAlignedKeys() throws Exception {
+        long[] keys = this.insert(5).setBatchSize(2).executeForKeys(this.connection());
+        assertArrayEquals(new long[]{100, 101, 102, 103, 104}, keys);
+        assertEquals(3, closedKeys);
+        assertEquals(5, this.insert(5).setBatchSize(2).execute(this.connection()));
+    }
+
+    @Test
+    public void bigintKeyDoesNotFitSetterId() throws Exception {
+        nextKey[0] = Integer.MAX_VALUE + 1L;
+        SqlInsert insert = new SqlInsert("item", id -> fail()).addInt("id", 1);
+        try {
+            insert.execute(this.connection());
+            fail();
+        } catch (SQLException e) {
+            assertEquals("Autogenerated key 2147483648 exceeds Integer range, use executeForKeys()!", e.getMessage());
+        }
+        nextKey[0] = Integer.MAX_VALUE + 1L;
+        assertArrayEquals(new long[]{Integer.MAX_VALUE + 1L}, new SqlInsert("item").addInt("id", 1).executeForKeys(this.connection()));
+    }
+
+    @Test
+    public void multiRowValues() throws Exception {
+        long[] keys = this.insert(7).setRowsPerStatement(3).executeForKeys(this.connection());
+        assertArrayEquals(new long[]{100, 101, 102, 103, 104, 105, 106}, keys);
+        assertEquals(2, prepared.size());
+        assertEquals(3, prepared.get(0).split("\\),").length);
+        assertEquals(1, prepared.get(1).split("\\),").length);
+    }
+
+    @Test
+    public void multiRowClosesStatementsAndCapsPlaceholders() throws Exception {
+        assertEquals(7, this.insert(7).setRowsPerStatement(100).setMaxPlaceholders(6).execute(this.connection()));
+        assertEquals(2, prepared.size());
+        assertEquals(3, prepared.get(0).split("\\),").length);
+        assertEquals(2, stub.getClosedStatements());
+    }
+
+    @Test
+    public void rowApiKeepsColumnOrder() throws Exception {
+        SqlInsert insert = new SqlInsert("item").columns("name", "id", "price")
+                .addRow("a", 1, null)
+                .beginRow().set("name", "b").setInt(1, 2).setDouble(2, 1.5).endRow();
+        assertEquals(2, insert.execute(this.connection()));
+        assertEquals("INSERT INTO item (name, id, price) VALUES (?, ?, ?)", prepared.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addRowChecksValueCount() {
+        new SqlInsert("item").columns("id", "name").addRow(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endRowChecksMissingColumns() {
+        new SqlInsert("item").columns("id", "name").beginRow().setInt(0, 1).endRow();
+    }
+
+    @Test
+    public void streamInsertsInOneTransaction() throws Exception {
+        SqlInsert insert = new SqlInsert("item").columns("id", "name").setPrefetch(16);
+        long count = insert.executeStream(this.connection(), IntStream.range(0, 2500).boxed(),
+                (i, row) -> row.setInt(0, i).set(1, "n" + i));
+        assertEquals(2500, count);
+        assertEquals(1, prepared.size());
+        assertEquals(Arrays.asList("commit"), transaction);
+    }
+
+    @Test
+    public void streamRollsBackOnError() throws Exception {
+        SqlInsert insert = new SqlInsert("item").columns("id", "name");
+        try {
+            insert.executeStream(this.connection(), IntStream.range(0, 10).boxed(), (i, row) -> {
+                if (i == 5) throw new IllegalArgumentException("bad row");
+                row.setInt(0, i).set(1, "n" + i);
+            });
+            fail();
+        } catch (SQLException e) {
+            assertEquals(Arrays.asList("rollback"), transaction);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package pe.mrodas.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Test;
+
+import pe.mrodas.db.helper.Autoclose;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SqlQueryChunkTest {
+
+    private static final int FAIL = -2;
+    private final JdbcStubs.StubConnection stub = new JdbcStubs.StubConnection(sql -> this.statement());
+    private final List<String> prepared = stub.getPrepared();
+    private final List<String> transaction = stub.getTransaction();
+
+    @After
+    public void reset() {
+        Connector.configure((DataSource) null);
+    }
+
+    private Connection connection() {
+        return stub.connect();
+    }
+
+    /**
+     * Statement that returns the bound int values as rows (update count: number of values).
+     * A statement with the value {@link #FAIL} bound fails
+     */
+    private JdbcStubs.Answer statement() {
+        List<Integer> values = new ArrayList<>();
+        return (method, args) -> {
+            switch (method) {
+                case "setInt":
+                    values.add((Integer) args[1]);
+                    return null;
+                case "execute":
+                    if (values.contains(FAIL)) throw new SQLException("Chunk failed");
+                    return true;
+                case "getUpdateCount":
+                    return values.size();
+                case "getResultSet":
+                    JdbcStubs.Rows rows = new JdbcStubs.Rows("id");
+                    values.forEach(rows::add);
+                    return rows.resultSet();
+                default:
+                    return null;
+            }
+        };
+    }
+
+    private static List<Integer> ids(int total) {
+        return IntStream.range(0, total).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * @return ids(10) with FAIL in the second chunk of 3
+     */
+    private static List<Integer> failingIds() {
+        List<Integer> ids = ids(10);
+        ids.set(4, FAIL);
+        return ids;
+    }
+
+    @Test
+    public void chunksAreMergedInOrder() throws Exception {
+        List<Integer> result = new SqlQuery<Integer>(this.connection(), Autoclose.YES)
+                .setSql("SELECT id FROM item WHERE type = :type AND id IN (:ids)")
+                .addParameter("type", -1)
+                .addParameter("ids", ids(25))
+                .setChunkSize(10)
+                .executeForList((st, rs) -> {
+                    List<Integer> rows = new ArrayList<>();
+                    while (rs.next()) rows.add(rs.getInt(1));
+                    return rows;
+                });
+        assertEquals(3, prepared.size());
+        assertEquals(11, prepared.get(0).split("\\?").length - 1);
+        assertEquals(6, prepared.get(2).split("\\?").length - 1);
+        List<Integer> expected = new ArrayList<>();
+        for (int from = 0; from < 25; from += 10) {
+            expected.add(-1);
+            expected.addAll(ids(25).subList(from, Math.min(from + 10, 25)));
+        }
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void chunkUpdateCountsAreSummed() throws Exception {
+        int count = new SqlQuery<>(this.connection(), Autoclose.YES)
+                .setSql("DELETE FROM item WHERE id IN (:ids)")
+                .addParameter("ids", ids(7))
+                .setChunkSize(3)
+                .execute();
+        assertEquals(7, count);
+        assertEquals(Arrays.asList(3, 3, 1), prepared.stream()
+                .map(sql -> sql.split("\\?").length - 1).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList("commit"), transaction);
+    }
+
+    @Test
+    public void failedWriteChunkRollsBack() throws Exception {
+        try {
+            new SqlQuery<>(this.connection(), Autoclose.YES)
+                    .setSql("DELETE FROM item WHERE id IN (:ids)")
+                    .addParameter("ids", failingIds())
+                    .setChunkSize(3)
+                    .execute();
+            fail();
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().startsWith("Chunk failed"));
+        }
+        assertEquals(2, prepared.size());
+        assertEquals(Collections.singletonList("rollback"), transaction);
+    }
+
+    @Test
+    public void failedReadChunkStopsTheRest() throws Exception {
+        Connector.configure(stub.dataSource());
+        try {
+            new SqlQuery<Integer>()
+                    .setSql("SELECT id FROM item WHERE id IN (:ids)")
+                    .addParameter("ids", failingIds())
+                    .setChunkSize(3)
+                    .setChunkExecutor(Runnable::run)
+                    .executeForList((st, rs) -> new ArrayList<>());
+            fail();
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().startsWith("Chunk failed"));
+        }
+        assertEquals(2, prepared.size());
+    }
+}
@@ -0,0 +1,42 @@
+package pe.mrodas.db;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pe.mrodas.db.helper.SqlTemplate;
+import pe.mrodas.db.helper.SqlTemplateCache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SqlTemplateTest {
+
+    @Test
+    public void prefixNames() {
+        SqlTemplate template = SqlTemplateCache.get("SELECT * FROM t WHERE id IN (:id1, :id10) AND x = :id");
+        assertEquals("SELECT * FROM t WHERE id IN (?, ?) AND x = ?", template.getJdbcSql());
+        assertEquals(Arrays.asList("id1", "id10", "id"), template.getParameterNames());
+    }
+
+    @Test
+    public void literalsCommentsAndCasts() {
+        String sql = String.join("\n",
+                "SELECT ':no', 'it''s :no', 'a\\':no', \":no\", `:no`, x::int, @v := 1 -- :no",
+                "FROM t /* :no */ WHERE a = :a AND b = :b AND c = :a");
+        SqlTemplate template = SqlTemplateCache.get(sql);
+        assertEquals(sql.replace(":a AND", "? AND").replace(":b", "?").replace("c = :a", "c = ?"), template.getJdbcSql());
+        assertEquals(Arrays.asList("a", "b", "a"), template.getParameterNames());
+        assertEquals(Arrays.asList("a", "b"), template.getNames());
+        assertEquals(0, template.getNameIndex(2));
+    }
+
+    @Test
+    public void expandAndCache() {
+        SqlTemplate template = SqlTemplateCache.get("SELECT * FROM t WHERE id IN (:ids) AND ids = :idsx");
+        String expanded = template.expand(Collections.singletonMap("ids", ":ids0,:ids1"));
+        assertEquals("SELECT * FROM t WHERE id IN (:ids0,:ids1) AND ids = :idsx", expanded);
+        assertSame(SqlTemplateCache.get(expanded), SqlTemplateCache.get(expanded));
+    }
+}
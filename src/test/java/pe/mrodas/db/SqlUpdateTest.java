@@ -0,0 +1,58 @@
+package pe.mrodas.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SqlUpdateTest {
+
+    private final List<Integer> batches = new ArrayList<>();
+    private final List<Object> bound = new ArrayList<>();
+    private final JdbcStubs.StubConnection connection = new JdbcStubs.StubConnection(sql -> this.statement());
+
+    /**
+     * Statement that updates one row per batched row, except rows filtered by id 0
+     */
+    private JdbcStubs.Answer statement() {
+        List<Integer> counts = new ArrayList<>();
+        return (method, args) -> {
+            switch (method) {
+                case "setInt":
+                case "setString":
+                    bound.add(args[1]);
+                    return null;
+                case "addBatch":
+                    counts.add(bound.get(bound.size() - 1).equals(0) ? 0 : 1);
+                    return null;
+                case "executeBatch":
+                    batches.add(counts.size());
+                    int[] result = counts.stream().mapToInt(Integer::intValue).toArray();
+                    counts.clear();
+                    return result;
+                default:
+                    return null;
+            }
+        };
+    }
+
+    @Test
+    public void batchReturnsCountPerRow() throws Exception {
+        SqlUpdate.Batch batch = SqlUpdate.batch("item").fields("name").filters("id").setBatchSize(2);
+        for (int id = 0; id < 5; id++) batch.addRow("n" + id, id);
+        int[] counts = batch.execute(connection.connect(), null);
+        assertArrayEquals(new int[]{0, 1, 1, 1, 1}, counts);
+        assertEquals(Arrays.asList("UPDATE item SET name = ? WHERE id = ?"), connection.getPrepared());
+        assertEquals(Arrays.asList(2, 2, 1), batches);
+        assertEquals(Arrays.asList("n0", 0, "n1", 1), bound.subList(0, 4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void batchNeedsFilters() {
+        SqlUpdate.batch("item").fields("name").addRow("a");
+    }
+}
@@ -0,0 +1,104 @@
+package pe.mrodas.db;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TableSnapshotTest {
+
+    private final JdbcStubs.Rows rows = new JdbcStubs.Rows("id", "name", "updated_at");
+    private final List<Object[]> table = rows.getValues();
+
+    public static class Item {
+        private long id;
+        private String name;
+    }
+
+    /**
+     * The statements return the rows of table, filtered by "updated_at >= ?" if bound
+     */
+    @Before
+    public void configure() {
+        Connector.configure(new JdbcStubs.StubConnection(sql -> {
+            Timestamp[] from = new Timestamp[1];
+            return (method, args) -> {
+                switch (method) {
+                    case "setTimestamp":
+                        from[0] = (Timestamp) args[1];
+                        return null;
+                    case "execute":
+                        return true;
+                    case "getResultSet":
+                        return rows.resultSet(table.stream()
+                                .filter(values -> from[0] == null || !((Timestamp) values[2]).before(from[0]))
+                                .collect(Collectors.toList()));
+                    default:
+                        return null;
+                }
+            };
+        }).dataSource());
+    }
+
+    @After
+    public void reset() {
+        Connector.configure((DataSource) null);
+    }
+
+    private static Timestamp at(int second) {
+        return new Timestamp(second * 1000L);
+    }
+
+    @Test
+    public void refreshReadsOnlyChangedRows() throws Exception {
+        table.add(new Object[]{1L, "a", at(1)});
+        table.add(new Object[]{2L, "b", at(2)});
+        TableSnapshot<Item> snapshot = new TableSnapshot<>(Item.class, "item", item -> item.id).setWatermark("updated_at").load();
+        assertEquals(2, snapshot.size());
+        List<Item> values = snapshot.values();
+        assertEquals(0, snapshot.refresh());
+        assertEquals(values, snapshot.values());
+        table.add(new Object[]{3L, "c", at(2)});
+        assertEquals(1, snapshot.refresh());
+        assertEquals(0, snapshot.refresh());
+        table.set(0, new Object[]{1L, "a2", at(3)});
+        assertEquals(1, snapshot.refresh());
+        assertEquals("a2", snapshot.get(1).name);
+        assertEquals(3, snapshot.size());
+        assertEquals(at(3), snapshot.getWatermark());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidWatermarkColumn() {
+        new TableSnapshot<>(Item.class, "item", (Item item) -> item.id).setWatermark("1 = 1 OR updated_at");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInjectedTableName() {
+        new TableSnapshot<>(Item.class, "t;DROP/**/TABLE/**/x", (Item item) -> item.id);
+    }
+
+    @Test
+    public void periodicFullLoadRemovesDeletedRows() throws Exception {
+        table.add(new Object[]{1L, "a", at(1)});
+        table.add(new Object[]{2L, "b", at(2)});
+        TableSnapshot<Item> snapshot = new TableSnapshot<>(Item.class, "schema.item", item -> item.id)
+                .setWatermark("updated_at").load();
+        table.remove(0);
+        assertEquals(0, snapshot.refresh());
+        assertEquals(2, snapshot.size());
+        snapshot.setFullLoadEvery(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+        assertEquals(1, snapshot.refresh());
+        assertNull(snapshot.get(1));
+    }
+}
@@ -0,0 +1,44 @@
+package pe.mrodas.jdbc;
+
+import java.sql.ResultSet;
+
+import org.junit.Test;
+
+import pe.mrodas.db.JdbcStubs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SqlMapperPlanTest {
+
+    private static final JdbcStubs.Rows ROWS = new JdbcStubs.Rows("REPEAT_TYPE", "repeat_consensus_id", "repeat_class")
+            .add("type", 7, null);
+
+    private static final SqlMapperPlan<Consensus> PLAN = new SqlMapperPlan<Consensus>()
+            .mapInt("repeat_consensus_id", Consensus::setRepeat_consensus_id)
+            .mapString("repeat_type", Consensus::setRepeat_type)
+            .mapString("repeat_class", Consensus::setRepeat_class);
+
+    @Test
+    public void appliesColumnsByIndex() throws Exception {
+        SqlMapperPlan<Consensus>.Bound bound = PLAN.bind(ROWS.metaData());
+        Consensus consensus = new Consensus();
+        ResultSet rs = ROWS.resultSet();
+        rs.next();
+        bound.apply(consensus, rs);
+        assertEquals(Integer.valueOf(7), consensus.getRepeat_consensus_id());
+        assertEquals("type", consensus.getRepeat_type());
+        assertNull(consensus.getRepeat_class());
+    }
+
+    @Test(expected = Exception.class)
+    public void missingColumn() throws Exception {
+        new SqlMapperPlan<Consensus>().mapString("repeat_consensus", Consensus::setRepeat_consensus)
+                .bind(ROWS.metaData());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyLabel() {
+        new SqlMapperPlan<Consensus>().mapString(" ", Consensus::setRepeat_consensus);
+    }
+}